@@ -0,0 +1,25 @@
+package com.ct.condition.benchmark;
+
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 基准测试使用的实体
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+@Data
+@Entity
+@Table(name = "t_bench_user")
+public class BenchUser {
+
+    @Id
+    private Long id;
+    private String username;
+    private String realname;
+    private Integer age;
+}
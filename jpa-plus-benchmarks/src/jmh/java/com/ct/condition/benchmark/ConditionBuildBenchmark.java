@@ -0,0 +1,32 @@
+package com.ct.condition.benchmark;
+
+import com.ct.condition.core.Conditions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * 构造条件的代价，字符串字段名与lambda字段名对比
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public class ConditionBuildBenchmark {
+
+    @Benchmark
+    public Specification<BenchUser> simpleCondition() {
+        return Conditions.use(BenchUser.class)
+                .eq("username", "lisi")
+                .rightLike("realname", "李")
+                .or(i -> i.ge("age", 18).le("age", 60))
+                .toSpec();
+    }
+
+    @Benchmark
+    public Specification<BenchUser> lambdaCondition() {
+        return Conditions.lambdaUse(BenchUser.class)
+                .eq(BenchUser::getUsername, "lisi")
+                .rightLike(BenchUser::getRealname, "李")
+                .or(i -> i.ge(BenchUser::getAge, 18).le(BenchUser::getAge, 60))
+                .toSpec();
+    }
+}
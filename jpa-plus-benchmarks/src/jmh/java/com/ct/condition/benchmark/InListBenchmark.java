@@ -0,0 +1,48 @@
+package com.ct.condition.benchmark;
+
+import com.ct.condition.core.Conditions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 不同大小的in集合，构造条件并转换为Predicate的代价
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class InListBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            ids.add(i);
+        }
+    }
+
+    @Benchmark
+    public Predicate in(JpaState jpa) {
+        CriteriaQuery<BenchUser> query = jpa.cb.createQuery(BenchUser.class);
+        Root<BenchUser> root = query.from(BenchUser.class);
+        return Conditions.lambdaUse(BenchUser.class)
+                .in(BenchUser::getId, ids)
+                .toSpec()
+                .toPredicate(root, query, jpa.cb);
+    }
+}
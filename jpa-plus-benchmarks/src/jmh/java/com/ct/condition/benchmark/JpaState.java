@@ -0,0 +1,53 @@
+package com.ct.condition.benchmark;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于H2内存库的EntityManagerFactory，提供真实的CriteriaBuilder
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class JpaState {
+
+    EntityManagerFactory emf;
+    EntityManager em;
+    CriteriaBuilder cb;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new DriverManagerDataSource("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1"));
+        factory.setPackagesToScan(BenchUser.class.getPackage().getName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+        properties.put(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+        factory.setJpaPropertyMap(properties);
+        factory.afterPropertiesSet();
+        emf = factory.getObject();
+        em = emf.createEntityManager();
+        cb = em.getCriteriaBuilder();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+}
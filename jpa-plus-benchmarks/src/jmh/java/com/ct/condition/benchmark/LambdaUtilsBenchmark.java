@@ -0,0 +1,26 @@
+package com.ct.condition.benchmark;
+
+import com.ct.condition.core.LambdaUtils;
+import com.ct.condition.core.SFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * 从lambda解析字段名的代价，第一次解析之后命中缓存
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public class LambdaUtilsBenchmark {
+
+    private static final SFunction<BenchUser, String> USERNAME = BenchUser::getUsername;
+
+    @Benchmark
+    public String extractLambdaFunctionName() {
+        return LambdaUtils.extractLambdaFunctionName(USERNAME);
+    }
+
+    @Benchmark
+    public String extractColumnName() {
+        return LambdaUtils.extractColumnName(USERNAME);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ct.condition.benchmark;
+
+import com.ct.condition.core.Conditions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * 将条件转换为Predicate的代价，使用Hibernate的CriteriaBuilder
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class ToPredicateBenchmark {
+
+    private Specification<BenchUser> spec;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        spec = Conditions.lambdaUse(BenchUser.class)
+                .eq(BenchUser::getUsername, "lisi")
+                .rightLike(BenchUser::getRealname, "李")
+                .or(i -> i.ge(BenchUser::getAge, 18).le(BenchUser::getAge, 60))
+                .toSpec();
+    }
+
+    @Benchmark
+    public Predicate toPredicate(JpaState jpa) {
+        CriteriaQuery<BenchUser> query = jpa.cb.createQuery(BenchUser.class);
+        Root<BenchUser> root = query.from(BenchUser.class);
+        return spec.toPredicate(root, query, jpa.cb);
+    }
+}
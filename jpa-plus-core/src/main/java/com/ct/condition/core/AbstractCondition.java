@@ -1,13 +1,37 @@
 package com.ct.condition.core;
 
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
+import javax.persistence.metamodel.Metamodel;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Condition
@@ -19,17 +43,40 @@ import java.util.stream.Stream;
 public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,T>, R, T>
         implements Condition<Child, R, T> {
 
+    private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
     private final Child typedThis = (Child)this;
-    private Specification<T> specification;
+    /**
+     * 当前层级的节点，节点之间为groupOperator关系；操作符改变时，已有节点折叠为一个子节点
+     */
+    private final List<ConditionNode> nodes = new ArrayList<>();
+    private Predicate.BooleanOperator groupOperator = Predicate.BooleanOperator.AND;
     private volatile Predicate.BooleanOperator operator;
+    private final Class<T> entityClass;
+    private InStrategy inStrategy = InStrategy.getDefault();
+    private JoinType joinType = JoinType.INNER;
+    private boolean rightLikeRange;
+    private Duration timeout;
+    private EntityAttributes attributes;
+    private ConditionCache cache;
+    private String[] keysetFields;
+    private String[][] keysetPaths;
+    private Sort.Direction keysetDirection = Sort.Direction.ASC;
+    private Object[] keysetAfter;
+    private FetchPlan fetchPlan = FetchPlan.EMPTY;
+    private boolean built;
 
     public AbstractCondition() {
-        this(Predicate.BooleanOperator.AND);
+        this(null);
+    }
+
+    public AbstractCondition(Class<T> entityClass) {
+        this(entityClass, Predicate.BooleanOperator.AND);
     }
 
-    private AbstractCondition(Predicate.BooleanOperator operator) {
+    private AbstractCondition(Class<T> entityClass, Predicate.BooleanOperator operator) {
+        this.entityClass = entityClass;
         this.operator = operator;
-        this.specification = (Specification<T>) (root, query, criteriaBuilder) -> null;
     }
 
     /**
@@ -37,7 +84,451 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public Specification<T> toSpec() {
-        return specification;
+        ConditionNode node = buildNode();
+        FetchPlan plan = fetchPlan;
+        return (root, query, criteriaBuilder) -> {
+            plan.applyFetches(root, query);
+            return ConditionListeners.toPredicate(node, new PredicateContext(root, criteriaBuilder));
+        };
+    }
+
+    /**
+     * 预编译条件，值为{@link Conditions#param(String)}的条件在执行时才绑定参数，
+     * 查询结构只构造一次，可以缓存起来重复使用
+     * @return PreparedCondition
+     */
+    public PreparedCondition<T> prepare() {
+        return new PreparedCondition<>(requireEntityClass(), buildNode());
+    }
+
+    /**
+     * 冻结为不可变的条件，可以保存为常量在多个线程中共享，之后对该condition的修改不影响已冻结的条件
+     * @return FrozenCondition
+     */
+    public FrozenCondition<T> freeze() {
+        return new FrozenCondition<>(entityClass, buildNode(), fetchPlan);
+    }
+
+    /**
+     * 设置之后in/notIn条件使用的策略，默认为{@link InStrategy#getDefault()}
+     * @param inStrategy
+     * @return Child
+     */
+    public Child inStrategy(InStrategy inStrategy) {
+        if (inStrategy == null) {
+            throw JpaPlusException.getException("InStrategy cannot be null");
+        }
+        this.inStrategy = inStrategy;
+        return typedThis;
+    }
+
+    /**
+     * 绑定JPA元模型，之后的条件在构造时校验属性路径，属性不存在时立即抛出异常，
+     * 条件值转换为属性的类型（如Integer转换为Long），执行时不再查找和转换
+     * @param metamodel EntityManager#getMetamodel()
+     * @return Child
+     */
+    public Child bind(Metamodel metamodel) {
+        this.attributes = EntityAttributes.of(metamodel, requireEntityClass());
+        return typedThis;
+    }
+
+    /**
+     * 设置之后的rightLike是否改写为范围查询，如rightLike("a", "abc")改写为 a >= 'abc' and a < 'abd'，
+     * 任何B树索引都可以使用，不依赖数据库对like前缀的优化；只改写字符串值，值为参数占位符时不改写。
+     * 与like的结果一致依赖字段的排序规则，默认不改写
+     * @param enabled
+     * @return Child
+     */
+    public Child rightLikeRange(boolean enabled) {
+        this.rightLikeRange = enabled;
+        return typedThis;
+    }
+
+    /**
+     * 查询超时时间，通过javax.persistence.query.timeout传递给JDBC语句，对findAll、count、exists及其异步版本生效；
+     * 异步查询超时后以TimeoutException结束并取消正在执行的语句
+     * @param timeout 为null时不超时
+     * @return Child
+     */
+    public Child timeout(Duration timeout) {
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw JpaPlusException.getException("Timeout must be positive");
+        }
+        this.timeout = timeout;
+        return typedThis;
+    }
+
+    /**
+     * 使用查询结果缓存，对findAll、count、page生效
+     * @param cache
+     * @return Child
+     */
+    public Child cache(ConditionCache cache) {
+        this.cache = cache;
+        return typedThis;
+    }
+
+    /**
+     * 设置之后的条件中a.b形式的路径经过关联属性时使用的连接类型，默认为inner join；
+     * 同一查询中相同路径、相同连接类型的join只生成一次，已有fetch join的路径直接复用
+     * @param joinType
+     * @return Child
+     */
+    public Child joinType(JoinType joinType) {
+        if (joinType == null) {
+            throw JpaPlusException.getException("JoinType cannot be null");
+        }
+        this.joinType = joinType;
+        return typedThis;
+    }
+
+    /**
+     * 流式查询，通过游标按需拉取数据，适用于导出等结果集很大的场景
+     * 需要在事务中调用，使用完毕后需要关闭Stream（如try-with-resources），遍历结束时也会自动关闭游标；
+     * 每拉取fetchSize条数据，调用之后加载的实体（包括关联实体和遍历时自行加载的实体）会从持久化上下文中移除，
+     * 调用之前已经在持久化上下文中的实体不受影响
+     * @param em
+     * @param fetchSize JDBC fetch size
+     * @return Stream
+     */
+    public Stream<T> stream(EntityManager em, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw JpaPlusException.getException("Fetch size must be positive");
+        }
+        Class<T> clzz = requireEntityClass();
+        ConditionNode node = buildNode();
+        FetchPlan plan = fetchPlan;
+        return ConditionListeners.execute(clzz, node, "stream", () -> {
+            Set<Object> preexisting = ScrollableResultsSpliterator.managedEntities(em);
+            ScrollableResults results = QueryFactory.createQuery(em, clzz, node, plan)
+                    .unwrap(Query.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            ScrollableResultsSpliterator<T> spliterator = new ScrollableResultsSpliterator<>(results, em, fetchSize, preexisting);
+            return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+        }, Stream::empty, null);
+    }
+
+    /**
+     * 抓取关联属性，执行时生成fetch join，避免N+1查询；支持a.b形式的路径
+     * 计数查询（包括分页时的计数）不会生成fetch join
+     * @param attribute
+     * @return Child
+     */
+    public Child fetch(R attribute) {
+        return fetch(attribute, JoinType.LEFT);
+    }
+
+    public Child fetch(R attribute, JoinType joinType) {
+        this.fetchPlan = fetchPlan.fetch(columnToString(attribute), joinType);
+        return typedThis;
+    }
+
+    /**
+     * 使用实体上定义的命名实体图，只在由本组件执行的查询（如findAll(em)、stream）中生效
+     * @param name
+     * @return Child
+     */
+    public Child namedEntityGraph(String name) {
+        this.fetchPlan = fetchPlan.namedGraph(name);
+        return typedThis;
+    }
+
+    /**
+     * 使用临时实体图加载指定的属性，只在由本组件执行的查询（如findAll(em)、stream）中生效
+     * @param attributes
+     * @return Child
+     */
+    @SafeVarargs
+    public final Child entityGraph(R... attributes) {
+        List<String> names = new ArrayList<>(attributes.length);
+        for (R attribute : attributes) {
+            names.add(columnToString(attribute));
+        }
+        this.fetchPlan = fetchPlan.graph(names);
+        return typedThis;
+    }
+
+    /**
+     * 查询满足条件的实体，应用fetch join和实体图
+     * @param em
+     * @return List
+     */
+    public List<T> findAll(EntityManager em) {
+        return findAllTask("findAll").apply(em);
+    }
+
+    /**
+     * 异步查询满足条件的实体，在新的EntityManager和事务中执行，返回的实体处于游离状态；
+     * 条件在调用时构造完成，之后对该condition的修改不影响本次查询。
+     * 取消返回的CompletableFuture时会取消正在执行的JDBC语句
+     * @param emf
+     * @return CompletableFuture
+     */
+    public CompletableFuture<List<T>> findAllAsync(EntityManagerFactory emf) {
+        return findAllAsync(emf, null);
+    }
+
+    /**
+     * @param executor 执行查询的线程池，为null时使用与并行扫描、批量查询共用的默认线程池：
+     *                 支持虚拟线程的JVM上每个查询一个虚拟线程，否则为按CPU核数创建的有界线程池
+     */
+    public CompletableFuture<List<T>> findAllAsync(EntityManagerFactory emf, Executor executor) {
+        return AsyncQuery.submit(emf, executor, timeout, findAllTask("findAllAsync"));
+    }
+
+    /**
+     * 按键的范围分区并行查询，条件在调用时构造完成，见{@link ParallelScan}
+     * @param key 分区使用的整数或时间类型的属性，最好有索引，如id
+     * @return ParallelScan
+     */
+    public ParallelScan<T> parallelScan(R key) {
+        String name = columnToString(key);
+        String[] path = attributes == null ? PathResolver.tokenize(name) : attributes.get(name).getPath();
+        return new ParallelScan<>(requireEntityClass(), buildNode(), fetchPlan, name, path, joinType, timeout);
+    }
+
+    /**
+     * 条件的快照上的查询，可以在其他线程中执行
+     */
+    private Function<EntityManager, List<T>> findAllTask(String terminal) {
+        Class<T> clzz = requireEntityClass();
+        ConditionNode node = buildNode();
+        FetchPlan plan = fetchPlan;
+        ConditionCache resultCache = cache;
+        Duration queryTimeout = timeout;
+        return em -> {
+            Supplier<List<T>> loader = () -> withTimeout(QueryFactory.createQuery(em, clzz, node, plan), queryTimeout)
+                    .getResultList();
+            return ConditionListeners.execute(clzz, node, terminal, resultCache == null ? loader
+                    : () -> resultCache.findAll(em, clzz, node, null, plan, loader), ArrayList::new, List::size);
+        };
+    }
+
+    /**
+     * 查询满足条件的数量，不排序，实体只有一个id属性时使用count(id)
+     * @param em
+     * @return 数量
+     */
+    public long count(EntityManager em) {
+        return countTask("count").apply(em);
+    }
+
+    /**
+     * 异步查询满足条件的数量，执行方式与{@link #findAllAsync(EntityManagerFactory)}相同
+     * @param emf
+     * @return CompletableFuture
+     */
+    public CompletableFuture<Long> countAsync(EntityManagerFactory emf) {
+        return countAsync(emf, null);
+    }
+
+    public CompletableFuture<Long> countAsync(EntityManagerFactory emf, Executor executor) {
+        return AsyncQuery.submit(emf, executor, timeout, countTask("countAsync"));
+    }
+
+    private Function<EntityManager, Long> countTask(String terminal) {
+        Class<T> clzz = requireEntityClass();
+        ConditionNode node = buildNode();
+        ConditionCache resultCache = cache;
+        Duration queryTimeout = timeout;
+        return em -> {
+            LongSupplier loader = () -> withTimeout(QueryFactory.createCountQuery(em, clzz, node), queryTimeout)
+                    .getSingleResult();
+            return ConditionListeners.execute(clzz, node, terminal,
+                    () -> resultCache == null ? loader.getAsLong() : resultCache.count(clzz, node, loader), () -> 0L, null);
+        };
+    }
+
+    /**
+     * 判断是否存在满足条件的数据，只查询一行，找到即返回
+     * @param em
+     * @return 是否存在
+     */
+    public boolean exists(EntityManager em) {
+        Class<T> clzz = requireEntityClass();
+        ConditionNode node = buildNode();
+        return ConditionListeners.execute(clzz, node, "exists",
+                () -> !withTimeout(QueryFactory.createExistsQuery(em, clzz, node), timeout).getResultList().isEmpty(),
+                () -> false, null);
+    }
+
+    /**
+     * 声明键集分页使用的键，多个字段按顺序组成有序且唯一的键，如：keyset(User::getCreatedAt, User::getId)
+     * @param fields
+     * @return Child
+     */
+    @SafeVarargs
+    public final Child keyset(R... fields) {
+        return keyset(Sort.Direction.ASC, fields);
+    }
+
+    @SafeVarargs
+    public final Child keyset(Sort.Direction direction, R... fields) {
+        if (fields.length == 0) {
+            throw JpaPlusException.getException("Keyset fields should not be empty");
+        }
+        String[] names = new String[fields.length];
+        String[][] paths = new String[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = columnToString(fields[i]);
+            paths[i] = attributes == null ? PathResolver.tokenize(names[i]) : attributes.get(names[i]).getPath();
+        }
+        this.keysetFields = names;
+        this.keysetPaths = paths;
+        this.keysetDirection = direction;
+        return typedThis;
+    }
+
+    /**
+     * 从上一页返回的游标之后开始查询，token为null时查询第一页
+     * @param token {@link KeysetPage#getNextToken()}
+     * @return Child
+     */
+    public Child after(String token) {
+        this.keysetAfter = token == null ? null : KeysetToken.decode(token);
+        return typedThis;
+    }
+
+    /**
+     * 从指定的键值之后开始查询，值的顺序与keyset声明的字段一致
+     * @param values
+     * @return Child
+     */
+    public Child afterKey(Object... values) {
+        this.keysetAfter = values;
+        return typedThis;
+    }
+
+    /**
+     * 键集分页查询，生成 (a > x) or (a = x and b > y) 形式的条件与已有条件组合，
+     * 查询任意一页的代价与第一页相同
+     * @param em
+     * @param size 每页数量
+     * @return KeysetPage
+     */
+    public KeysetPage<T> page(EntityManager em, int size) {
+        if (keysetFields == null) {
+            throw JpaPlusException.getException("Keyset is not declared, call keyset(...) first");
+        }
+        if (size <= 0) {
+            throw JpaPlusException.getException("Page size must be positive");
+        }
+        ConditionNode node = buildNode();
+        if (keysetAfter != null) {
+            node = OptimizedNode.of(new OperatorNode(Predicate.BooleanOperator.AND, new ConditionNode[]{node, seekNode()}));
+        }
+        boolean asc = keysetDirection.isAscending();
+        String[][] paths = keysetPaths;
+        JoinType keysetJoinType = joinType;
+        Class<T> clzz = requireEntityClass();
+        ConditionNode seek = node;
+        Supplier<List<T>> loader = () -> QueryFactory.createQuery(em, clzz, seek, fetchPlan, (query, root) -> {
+            List<Order> orders = new ArrayList<>(paths.length);
+            for (String[] field : paths) {
+                Path<?> path = PathResolver.resolve(root, field, keysetJoinType);
+                orders.add(asc ? em.getCriteriaBuilder().asc(path) : em.getCriteriaBuilder().desc(path));
+            }
+            query.select(root).orderBy(orders);
+        }).setMaxResults(size + 1).getResultList();
+        List<Object> paging = Arrays.asList(Arrays.asList(keysetFields), keysetDirection, size);
+        List<T> content = ConditionListeners.execute(clzz, seek, "page",
+                cache == null ? loader : () -> cache.findAll(em, clzz, seek, paging, fetchPlan, loader), ArrayList::new, List::size);
+        if (content.size() <= size) {
+            return new KeysetPage<>(content, null);
+        }
+        content = new ArrayList<>(content.subList(0, size));
+        BeanWrapper last = new DirectFieldAccessFallbackBeanWrapper(content.get(size - 1));
+        Object[] values = new Object[keysetFields.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = last.getPropertyValue(keysetFields[i]);
+        }
+        return new KeysetPage<>(content, KeysetToken.encode(values));
+    }
+
+    /**
+     * (k1 > v1) or (k1 = v1 and k2 > v2) or ...
+     */
+    private ConditionNode seekNode() {
+        if (keysetAfter.length != keysetFields.length) {
+            throw JpaPlusException.getException("Expect " + keysetFields.length + " keyset values but got " + keysetAfter.length);
+        }
+        Handler compare = keysetDirection.isAscending() ? Handler.GT : Handler.LT;
+        ConditionNode[] branches = new ConditionNode[keysetFields.length];
+        for (int i = 0; i < keysetFields.length; i++) {
+            ConditionNode[] terms = new ConditionNode[i + 1];
+            for (int j = 0; j < i; j++) {
+                terms[j] = keysetTerm(Handler.EQUAL, j);
+            }
+            terms[i] = keysetTerm(compare, i);
+            branches[i] = new OperatorNode(Predicate.BooleanOperator.AND, terms);
+        }
+        return new OperatorNode(Predicate.BooleanOperator.OR, branches);
+    }
+
+    private ConditionNode keysetTerm(Handler handler, int index) {
+        if (keysetAfter[index] == null) {
+            throw JpaPlusException.getException("Keyset value cannot be null");
+        }
+        Object value = attributes == null ? keysetAfter[index] : attributes.get(keysetFields[index]).coerce(handler, keysetAfter[index]);
+        return new PredicateNode(handler, keysetFields[index], keysetPaths[index], joinType, value);
+    }
+
+    /**
+     * 条件的结构指纹，只与实体、条件类型、字段路径、与/或结构和in集合大小的分桶有关，与值无关，
+     * 用于按结构对查询分组，如统计热点查询、查询计划缓存的命中情况；
+     * 按规范化后、{@link ConditionOptimizer}改写前的条件树计算，与监听器事件中的结构指纹相同
+     * @return 64位指纹
+     */
+    public long shapeFingerprint() {
+        return Fingerprint.of(entityClass, OperatorNode.normalize(toNode()).shapeHash());
+    }
+
+    /**
+     * 包括值的指纹，结构和值都相同的条件指纹相同
+     * @return 64位指纹
+     */
+    public long valueFingerprint() {
+        return Fingerprint.of(entityClass, OperatorNode.normalize(toNode()).valueHash());
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    FetchPlan getFetchPlan() {
+        return fetchPlan;
+    }
+
+    Class<T> requireEntityClass() {
+        if (entityClass == null) {
+            throw JpaPlusException.getException("Entity class is required, create condition by Conditions.use(Class)");
+        }
+        return entityClass;
+    }
+
+    /**
+     * 条件构造完成时获取规范化并经过{@link ConditionOptimizer}改写的条件树，见{@link OptimizedNode}，第一次调用时通知监听器
+     */
+    ConditionNode buildNode() {
+        if (built || entityClass == null || !ConditionListeners.isEnabled()) {
+            return OptimizedNode.of(toNode());
+        }
+        long start = System.nanoTime();
+        ConditionNode node = OptimizedNode.of(toNode());
+        built = true;
+        ConditionListeners.built(entityClass, node, System.nanoTime() - start);
+        return node;
+    }
+
+    /**
+     * 当前条件树的快照，之后对该condition的修改不影响已返回的节点
+     */
+    ConditionNode toNode() {
+        return new OperatorNode(groupOperator, nodes.toArray(OperatorNode.EMPTY));
     }
 
     /**
@@ -54,13 +545,45 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public Child and(Consumer<Child> consumer) {
-        Child wrapper = instance();
+        Child wrapper = nested();
         consumer.accept(wrapper);
-        this.mergeSpecification(wrapper.toSpec(), Predicate.BooleanOperator.AND);
+        this.mergeNested(wrapper, Predicate.BooleanOperator.AND);
+        this.operator = Predicate.BooleanOperator.AND;
+        return typedThis;
+    }
+
+
+    /**
+     * 与冻结条件构成且的关系，直接引用冻结条件的条件树
+     * @param frozen
+     * @return Child
+     */
+    public Child and(FrozenCondition<T> frozen) {
+        this.mergeFrozen(frozen, Predicate.BooleanOperator.AND);
         this.operator = Predicate.BooleanOperator.AND;
         return typedThis;
     }
 
+    /**
+     * 与调用链中上一个条件构成或的关系，直接引用冻结条件的条件树
+     * @param frozen
+     * @return Child
+     */
+    public Child or(FrozenCondition<T> frozen) {
+        this.mergeFrozen(frozen, Predicate.BooleanOperator.OR);
+        this.operator = Predicate.BooleanOperator.OR;
+        return typedThis;
+    }
+
+    /**
+     * 嵌套条件的实例，继承当前的in策略、连接类型、rightLike的改写方式和元模型
+     */
+    private Child nested() {
+        Child wrapper = instance();
+        wrapper.inStrategy(inStrategy).joinType(joinType).rightLikeRange(rightLikeRange);
+        ((AbstractCondition<?, ?, T>) wrapper).attributes = attributes;
+        return wrapper;
+    }
 
     /**
      * 子类返回自己的一个实例
@@ -84,9 +607,9 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public Child or(Consumer<Child> consumer) {
-        Child wrapper = instance();
+        Child wrapper = nested();
         consumer.accept(wrapper);
-        this.mergeSpecification(wrapper.toSpec(), Predicate.BooleanOperator.OR);
+        this.mergeNested(wrapper, Predicate.BooleanOperator.OR);
         this.operator = Predicate.BooleanOperator.OR;
         return typedThis;
     }
@@ -141,7 +664,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public <X extends Comparable<? super X>> Child ge(R field, X val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.GE, columnToString(field), val));
+        this.merge(node(Handler.GE, field, val), this.operator);
         return typedThis;
     }
 
@@ -156,7 +679,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public <X extends Comparable<? super X>> Child eq(R field, X val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.EQUAL, columnToString(field), val));
+        this.merge(node(Handler.EQUAL, field, val), this.operator);
         return typedThis;
     }
 
@@ -167,7 +690,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public <X extends Comparable<? super X>> Child notEq(R field, X val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.NOT_EQUAL, columnToString(field), val));
+        this.merge(node(Handler.NOT_EQUAL, field, val), this.operator);
         return typedThis;
     }
 
@@ -177,7 +700,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public <X extends Comparable<? super X>> Child gt(R field, X val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.GT, columnToString(field), val));
+        this.merge(node(Handler.GT, field, val), this.operator);
         return typedThis;
     }
 
@@ -187,7 +710,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public <X extends Comparable<? super X>> Child lt(R field, X val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.LT, columnToString(field), val));
+        this.merge(node(Handler.LT, field, val), this.operator);
         return typedThis;
     }
 
@@ -197,17 +720,26 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public <X extends Comparable<? super X>> Child le(R field, X val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.LE, columnToString(field), val));
+        this.merge(node(Handler.LE, field, val), this.operator);
         return typedThis;
     }
 
     /**
-     * 全模糊查询
+     * 全模糊查询，值中的%和_按字面值匹配
      * 如: allLike("a", "1") 等价于 a like "%1%"
      */
     @Override
     public Child allLike(R field, String val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.ALL_LIKE, columnToString(field), val));
+        this.merge(node(Handler.ALL_LIKE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 值为参数占位符的allLike，与allLike(R, String)分开命名，传入null时不会产生歧义
+     */
+    @Override
+    public Child allLikeParam(R field, Param val) {
+        this.merge(node(Handler.ALL_LIKE, field, val), this.operator);
         return typedThis;
     }
 
@@ -217,7 +749,17 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public Child rightLike(R field, String val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.RIGHT_LIKE, columnToString(field), val));
+        ConditionNode range = rightLikeRange && val != null ? prefixRange(field, val) : null;
+        this.merge(range != null ? range : node(Handler.RIGHT_LIKE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 值为参数占位符的rightLike，与rightLike(R, String)分开命名，传入null时不会产生歧义
+     */
+    @Override
+    public Child rightLikeParam(R field, Param val) {
+        this.merge(node(Handler.RIGHT_LIKE, field, val), this.operator);
         return typedThis;
     }
 
@@ -227,7 +769,92 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public Child leftLike(R field, String val) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.LEFT_LIKE, columnToString(field), val));
+        this.merge(node(Handler.LEFT_LIKE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 值为参数占位符的leftLike，与leftLike(R, String)分开命名，传入null时不会产生歧义
+     */
+    @Override
+    public Child leftLikeParam(R field, Param val) {
+        this.merge(node(Handler.LEFT_LIKE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 忽略大小写的全模糊查询，值在Java中转换为小写，只对字段调用lower，可以使用lower(a)上的函数索引
+     * 如: allLikeIgnoreCase("a", "Ab") 等价于 lower(a) like "%ab%"
+     */
+    @Override
+    public Child allLikeIgnoreCase(R field, String val) {
+        this.merge(node(Handler.ALL_LIKE_IGNORE_CASE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 值为参数占位符的allLikeIgnoreCase，与allLikeIgnoreCase(R, String)分开命名，传入null时不会产生歧义
+     */
+    @Override
+    public Child allLikeIgnoreCaseParam(R field, Param val) {
+        this.merge(node(Handler.ALL_LIKE_IGNORE_CASE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 忽略大小写的右模糊查询
+     * 如: rightLikeIgnoreCase("a", "Ab") 等价于 lower(a) like "ab%"
+     */
+    @Override
+    public Child rightLikeIgnoreCase(R field, String val) {
+        this.merge(node(Handler.RIGHT_LIKE_IGNORE_CASE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 值为参数占位符的rightLikeIgnoreCase，与rightLikeIgnoreCase(R, String)分开命名，传入null时不会产生歧义
+     */
+    @Override
+    public Child rightLikeIgnoreCaseParam(R field, Param val) {
+        this.merge(node(Handler.RIGHT_LIKE_IGNORE_CASE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 忽略大小写的左模糊查询
+     * 如: leftLikeIgnoreCase("a", "Ab") 等价于 lower(a) like "%ab"
+     */
+    @Override
+    public Child leftLikeIgnoreCase(R field, String val) {
+        this.merge(node(Handler.LEFT_LIKE_IGNORE_CASE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 值为参数占位符的leftLikeIgnoreCase，与leftLikeIgnoreCase(R, String)分开命名，传入null时不会产生歧义
+     */
+    @Override
+    public Child leftLikeIgnoreCaseParam(R field, Param val) {
+        this.merge(node(Handler.LEFT_LIKE_IGNORE_CASE, field, val), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 全文检索，使用属性上配置的{@link TextSearch}策略，没有配置时等价于allLike；值为空字符串时忽略该条件
+     * 如: match("a", "jpa") 在配置了MySQL全文检索函数时等价于 match(a) against ('jpa' in boolean mode) &gt; 0
+     */
+    @Override
+    public Child match(R field, String query) {
+        this.merge(node(Handler.MATCH, field, "".equals(query) ? null : query), this.operator);
+        return typedThis;
+    }
+
+    /**
+     * 值为参数占位符的match
+     */
+    @Override
+    public Child matchParam(R field, Param query) {
+        this.merge(node(Handler.MATCH, field, query), this.operator);
         return typedThis;
     }
 
@@ -237,7 +864,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public Child isNull(R field) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.IS_NULL, columnToString(field),null));
+        this.merge(node(Handler.IS_NULL, field, null), this.operator);
         return typedThis;
     }
 
@@ -247,7 +874,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
      */
     @Override
     public Child isNotNull(R field) {
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.IS_NOT_NULL, columnToString(field), null));
+        this.merge(node(Handler.IS_NOT_NULL, field, null), this.operator);
         return typedThis;
     }
 
@@ -261,7 +888,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
         if(collection != null && collection.isEmpty()){
             throw JpaPlusException.getException("Collection cannot be empty");
         }
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.IN, columnToString(field), collection));
+        this.merge(node(Handler.IN, field, inValues(collection)), this.operator);
         return typedThis;
     }
 
@@ -275,7 +902,7 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
         if(collection != null && collection.isEmpty()){
             throw JpaPlusException.getException("Collection should not be empty");
         }
-        this.specification = getSpecification(SpecificationFactory.createSpec(Handler.NOT_IN, columnToString(field), collection));
+        this.merge(node(Handler.NOT_IN, field, inValues(collection)), this.operator);
         return typedThis;
     }
 
@@ -323,19 +950,98 @@ public abstract class AbstractCondition<Child extends AbstractCondition<Child,R,
         return typedThis;
     }
 
-    private void mergeSpecification(Specification<T> s, Predicate.BooleanOperator operator) {
-        if(s != null){
-            this.specification = operator == Predicate.BooleanOperator.AND ? this.specification.and(s) :  this.specification.or(s) ;
+    private PredicateNode node(Handler handler, R field, Object val) {
+        checkValue(handler, field, val);
+        String name = columnToString(field);
+        if (attributes == null) {
+            return SpecificationFactory.createNode(handler, name, val, joinType);
+        }
+        EntityAttributes.Field attribute = attributes.get(name);
+        return SpecificationFactory.createNode(handler, name, attribute.getPath(), attribute.coerce(handler, val), joinType);
+    }
+
+    /**
+     * 构造条件节点前检查值，默认不检查，由绑定的元模型按属性类型转换
+     */
+    void checkValue(Handler handler, R field, Object val) {
+    }
+
+    /**
+     * 字段的类型，未绑定元模型等无法确定时返回null
+     */
+    Class<?> javaType(R field) {
+        return attributes == null ? null : attributes.get(columnToString(field)).getJavaType();
+    }
+
+    /**
+     * 右模糊查询改写的范围条件，不能改写时返回null
+     */
+    private ConditionNode prefixRange(R field, String prefix) {
+        String upper = SpecificationFactory.prefixUpperBound(prefix);
+        Class<?> javaType = javaType(field);
+        if (upper == null || javaType != null && javaType != String.class) {
+            return null;
         }
+        return new OperatorNode(Predicate.BooleanOperator.AND, new ConditionNode[]{
+                node(Handler.GE, field, prefix), node(Handler.LT, field, upper)});
     }
 
+    /**
+     * 设置语句超时，Hibernate只接受Integer类型的毫秒数
+     */
+    static <Q extends TypedQuery<?>> Q withTimeout(Q query, Duration timeout) {
+        if (timeout != null) {
+            query.setHint(QUERY_TIMEOUT_HINT, (int) Math.min(timeout.toMillis(), Integer.MAX_VALUE));
+        }
+        return query;
+    }
 
-    private Specification<T> getSpecification(Specification<T> spec) {
-        mergeSpecification(spec, this.operator);
-        return this.specification;
+    private InValues inValues(Collection<?> collection) {
+        return collection == null ? null : InValues.of(collection, inStrategy);
     }
 
+    /**
+     * 合并嵌套条件，嵌套条件为空时忽略；只有一个子节点或操作符相同时直接展开，不增加层级
+     */
+    private void mergeNested(AbstractCondition<?, ?, T> nested, Predicate.BooleanOperator operator) {
+        List<ConditionNode> children = nested.nodes;
+        if (children.size() == 1 || nested.groupOperator == operator) {
+            for (ConditionNode child : children) {
+                merge(child, operator);
+            }
+        } else if (!children.isEmpty()) {
+            merge(nested.toNode(), operator);
+        }
+    }
 
+    /**
+     * 合并冻结条件，操作符相同时展开其子节点，与mergeNested一致
+     */
+    private void mergeFrozen(FrozenCondition<T> frozen, Predicate.BooleanOperator operator) {
+        ConditionNode node = frozen.getNode();
+        if (node instanceof OperatorNode && ((OperatorNode) node).getOperator() == operator) {
+            for (ConditionNode child : ((OperatorNode) node).getChildren()) {
+                merge(child, operator);
+            }
+        } else if (!(node instanceof OperatorNode) || ((OperatorNode) node).getChildren().length > 0) {
+            merge(node, operator);
+        }
+    }
 
+    /**
+     * 按调用顺序从左到右合并节点，与连续的Specification.and/or语义一致
+     */
+    private void merge(ConditionNode node, Predicate.BooleanOperator operator) {
+        if (node == null) {
+            return;
+        }
+        if (nodes.size() > 1 && groupOperator != operator) {
+            ConditionNode folded = new OperatorNode(groupOperator, nodes.toArray(OperatorNode.EMPTY));
+            nodes.clear();
+            nodes.add(folded);
+        }
+        groupOperator = operator;
+        nodes.add(node);
+    }
 
 }
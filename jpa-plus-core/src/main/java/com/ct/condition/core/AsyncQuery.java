@@ -0,0 +1,137 @@
+package com.ct.condition.core;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * 异步执行的查询，每个查询使用独立的EntityManager和本地事务（JTA时不使用事务），返回的实体处于游离状态；
+ * 取消时通过Session#cancelQuery取消正在执行的JDBC语句，超时后按取消处理
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class AsyncQuery<R> extends CompletableFuture<R> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncQuery.class);
+
+    private volatile EntityManager running;
+
+    private AsyncQuery() {
+    }
+
+    /**
+     * @param executor 为null时使用{@link QueryExecutors#getDefault()}
+     * @param timeout 为null时不超时
+     * @param work 在新的EntityManager和事务中执行的查询
+     */
+    static <R> CompletableFuture<R> submit(EntityManagerFactory emf, Executor executor, Duration timeout,
+                                           Function<EntityManager, R> work) {
+        AsyncQuery<R> future = new AsyncQuery<>();
+        try {
+            (executor != null ? executor : QueryExecutors.getDefault()).execute(() -> future.run(emf, work));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        if (timeout != null) {
+            ScheduledFuture<?> timer = Timer.INSTANCE.schedule(() -> {
+                if (future.completeExceptionally(new TimeoutException("Query timed out after " + timeout))) {
+                    future.cancelStatement();
+                }
+            }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+            future.whenComplete((result, e) -> timer.cancel(false));
+        }
+        return future;
+    }
+
+    private void run(EntityManagerFactory emf, Function<EntityManager, R> work) {
+        if (isDone()) {
+            return;
+        }
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction transaction = null;
+        try {
+            running = em;
+            if (isDone()) {
+                // 在发布running之前被取消或超时，cancelStatement没有可以取消的语句，不再执行
+                return;
+            }
+            if (!isJta(em)) {
+                transaction = em.getTransaction();
+                transaction.begin();
+            }
+            R result = work.apply(em);
+            running = null;
+            if (transaction != null) {
+                transaction.commit();
+            }
+            complete(result);
+        } catch (Throwable e) {
+            running = null;
+            if (transaction != null && transaction.isActive()) {
+                try {
+                    transaction.rollback();
+                } catch (RuntimeException rollback) {
+                    e.addSuppressed(rollback);
+                }
+            }
+            completeExceptionally(e);
+        } finally {
+            running = null;
+            em.close();
+        }
+    }
+
+    /**
+     * JTA的EntityManager不能调用getTransaction()，只读查询不加入JTA事务，直接执行
+     */
+    private static boolean isJta(EntityManager em) {
+        return em.unwrap(SessionImplementor.class).getTransactionCoordinator().getTransactionCoordinatorBuilder().isJta();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            cancelStatement();
+        }
+        return cancelled;
+    }
+
+    private void cancelStatement() {
+        EntityManager em = running;
+        if (em == null) {
+            return;
+        }
+        try {
+            em.unwrap(Session.class).cancelQuery();
+        } catch (RuntimeException e) {
+            // 语句已执行完毕或EntityManager已关闭
+            LOGGER.debug("Failed to cancel query", e);
+        }
+    }
+
+    private static final class Timer {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jpa-plus-async-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package com.ct.condition.core;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 批量查询同一个实体上的多个条件，一次数据库往返返回每个条件各自的结果，如：
+ * List&lt;List&lt;User&gt;&gt; results = Conditions.batch(User.class).add(c1).add(c2).execute(em);
+ * JPQL不支持union all，多个条件用or连接为一个查询，每个条件对应一个case when标记列，再按标记拆分结果；
+ * 条件带有fetch join或实体图时不能合并，改为在线程池中并发执行，每个查询使用独立的EntityManager，
+ * 此时返回的实体处于游离状态；条件使用关联属性（生成join）时也不能合并，一个条件的内连接会过滤掉只满足其他条件的行，
+ * 集合关联还会使其他条件的结果重复，改为在当前EntityManager中逐个执行
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class BatchQuery<T> {
+
+    private final Class<T> entityClass;
+    private final List<ConditionNode> nodes = new ArrayList<>();
+    private final List<FetchPlan> fetchPlans = new ArrayList<>();
+    private Executor executor;
+
+    BatchQuery(Class<T> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * 添加一个条件，使用条件的快照
+     */
+    public BatchQuery<T> add(AbstractCondition<?, ?, T> condition) {
+        nodes.add(condition.buildNode());
+        fetchPlans.add(condition.getFetchPlan());
+        return this;
+    }
+
+    public BatchQuery<T> add(FrozenCondition<T> condition) {
+        nodes.add(condition.getNode());
+        fetchPlans.add(condition.getFetchPlan());
+        return this;
+    }
+
+    /**
+     * 不能合并为一个查询时使用的线程池，默认与异步查询共用{@link QueryExecutors#getDefault()}
+     */
+    public BatchQuery<T> executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 执行查询
+     * @param em
+     * @return 与添加顺序一致的每个条件的结果
+     */
+    public List<List<T>> execute(EntityManager em) {
+        if (nodes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        for (FetchPlan fetchPlan : fetchPlans) {
+            if (!fetchPlan.isEmpty()) {
+                return executeConcurrently(em.getEntityManagerFactory());
+            }
+        }
+        List<List<T>> results = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            results.add(new ArrayList<>());
+        }
+        TypedQuery<Object[]> query = QueryFactory.createBatchQuery(em, entityClass, nodes);
+        if (query == null) {
+            return executeSeparately(em);
+        }
+        List<Object[]> rows = ConditionListeners.execute(entityClass,
+                new OperatorNode(Predicate.BooleanOperator.OR, nodes.toArray(OperatorNode.EMPTY)), "batch",
+                query::getResultList, ArrayList::new, List::size);
+        for (Object[] row : rows) {
+            T entity = entityClass.cast(row[0]);
+            for (int i = 0; i < nodes.size(); i++) {
+                if (((Number) row[i + 1]).intValue() == 1) {
+                    results.get(i).add(entity);
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<List<T>> executeSeparately(EntityManager em) {
+        List<List<T>> results = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            ConditionNode node = nodes.get(i);
+            FetchPlan fetchPlan = fetchPlans.get(i);
+            results.add(ConditionListeners.execute(entityClass, node, "batch",
+                    () -> QueryFactory.createQuery(em, entityClass, node, fetchPlan).getResultList(), ArrayList::new, List::size));
+        }
+        return results;
+    }
+
+    private List<List<T>> executeConcurrently(EntityManagerFactory emf) {
+        Executor pool = executor != null ? executor : QueryExecutors.getDefault();
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            ConditionNode node = nodes.get(i);
+            FetchPlan fetchPlan = fetchPlans.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                EntityManager em = emf.createEntityManager();
+                try {
+                    return ConditionListeners.execute(entityClass, node, "batch",
+                            () -> QueryFactory.createQuery(em, entityClass, node, fetchPlan).getResultList(), ArrayList::new, List::size);
+                } finally {
+                    em.close();
+                }
+            }, pool));
+        }
+        List<List<T>> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw JpaPlusException.getException("Batch query failed", e.getCause());
+        }
+        return results;
+    }
+}
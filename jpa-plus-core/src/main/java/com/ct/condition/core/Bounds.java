@@ -0,0 +1,50 @@
+package com.ct.condition.core;
+
+import java.util.Objects;
+
+/**
+ * between条件的上下界，不可变
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class Bounds {
+
+    private final Object low;
+    private final Object high;
+
+    Bounds(Object low, Object high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    Object getLow() {
+        return low;
+    }
+
+    Object getHigh() {
+        return high;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Bounds)) {
+            return false;
+        }
+        Bounds bounds = (Bounds) o;
+        return Objects.equals(low, bounds.low) && Objects.equals(high, bounds.high);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(low, high);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + low + ", " + high + "]";
+    }
+}
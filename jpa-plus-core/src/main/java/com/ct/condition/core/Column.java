@@ -0,0 +1,60 @@
+package com.ct.condition.core;
+
+/**
+ * 实体属性的描述，包括属性名和类型，不可变；通常由jpa-plus-processor为每个实体生成，如UserCols.USERNAME，
+ * 用于{@link TypedCondition}，构造条件时不需要反射和lambda序列化
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class Column<T, V> {
+
+    private final Class<T> entityClass;
+    private final String name;
+    private final Class<V> javaType;
+
+    private Column(Class<T> entityClass, String name, Class<V> javaType) {
+        this.entityClass = entityClass;
+        this.name = name;
+        this.javaType = javaType;
+    }
+
+    /**
+     * @param entityClass 属性所在的实体或嵌入类
+     * @param name 属性名，可以是a.b形式的路径
+     * @param javaType 属性类型，基本类型使用包装类型
+     * @return Column
+     */
+    public static <T, V> Column<T, V> of(Class<T> entityClass, String name, Class<V> javaType) {
+        if (entityClass == null || StringUtil.isEmpty(name) || javaType == null) {
+            throw JpaPlusException.getException("Entity class, name and java type of column cannot be empty");
+        }
+        return new Column<>(entityClass, name, javaType);
+    }
+
+    /**
+     * 关联或嵌入属性的下级属性，如EmployeeCols.DEPT.then(DeptCols.CODE)对应dept.code
+     * @param column 下级属性，所在的类必须是当前属性的类型
+     * @return Column
+     */
+    public <X> Column<T, X> then(Column<V, X> column) {
+        return new Column<>(entityClass, name + "." + column.name, column.javaType);
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<V> getJavaType() {
+        return javaType;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
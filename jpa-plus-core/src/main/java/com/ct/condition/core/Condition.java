@@ -36,10 +36,32 @@ public interface Condition<Child extends Condition<Child,R,T>, R, T> {
 
     Child allLike(R field, String val);
 
+    Child allLikeParam(R field, Param val);
+
     Child rightLike(R field, String val);
 
+    Child rightLikeParam(R field, Param val);
+
     Child leftLike(R field, String val);
 
+    Child leftLikeParam(R field, Param val);
+
+    Child allLikeIgnoreCase(R field, String val);
+
+    Child allLikeIgnoreCaseParam(R field, Param val);
+
+    Child rightLikeIgnoreCase(R field, String val);
+
+    Child rightLikeIgnoreCaseParam(R field, Param val);
+
+    Child leftLikeIgnoreCase(R field, String val);
+
+    Child leftLikeIgnoreCaseParam(R field, Param val);
+
+    Child match(R field, String query);
+
+    Child matchParam(R field, Param query);
+
     Child isNull(R field);
 
     Child isNotNull(R field);
@@ -0,0 +1,275 @@
+package com.ct.condition.core;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 查询结果缓存，按实体、条件的值和分页参数缓存，数量超过上限时淘汰最久未使用的，超过存活时间后失效；
+ * 实体查询只缓存id列表，命中时按id重新加载实体，不会长期持有实体对象。线程安全，如：
+ * ConditionCache cache = new ConditionCache(1000, Duration.ofSeconds(10));
+ * Conditions.lambdaUse(User.class).eq(User::getUsername, "lisi").cache(cache).findAll(em);
+ * 实体增删改后需要使缓存失效：在实体上添加@EntityListeners(ConditionCacheListener.class)，
+ * 或者调用{@link #invalidateAll(Class)}；批量更新和删除会自动使缓存失效。
+ * 失效在flush时触发，事务提交前其他线程仍可能缓存旧数据，存活时间是最终的上限
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class ConditionCache {
+
+    private static final Set<ConditionCache> CACHES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    /**
+     * 每个实体类型的版本号，失效时加一，版本号不同的缓存项视为失效
+     */
+    private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, LongAdder> hits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, LongAdder> misses = new ConcurrentHashMap<>();
+
+    /**
+     * @param maximumSize 最多缓存的查询数量
+     * @param ttl 存活时间
+     */
+    public ConditionCache(int maximumSize, Duration ttl) {
+        if (maximumSize <= 0) {
+            throw JpaPlusException.getException("Maximum size must be positive");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw JpaPlusException.getException("TTL must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ConditionCache.this.maximumSize;
+            }
+        };
+        CACHES.add(this);
+    }
+
+    /**
+     * 使所有缓存中该实体类型及其父类型的查询失效
+     * @param entityClass
+     */
+    public static void invalidateAll(Class<?> entityClass) {
+        List<ConditionCache> caches;
+        synchronized (CACHES) {
+            caches = new ArrayList<>(CACHES);
+        }
+        for (ConditionCache cache : caches) {
+            cache.invalidate(entityClass);
+        }
+    }
+
+    /**
+     * 使该实体类型及其父类型的查询失效
+     * @param entityClass
+     */
+    public void invalidate(Class<?> entityClass) {
+        for (Class<?> clzz = entityClass; clzz != null && clzz != Object.class; clzz = clzz.getSuperclass()) {
+            AtomicLong generation = generations.get(clzz);
+            if (generation != null) {
+                generation.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount(Class<?> entityClass) {
+        LongAdder adder = hits.get(entityClass);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public long missCount(Class<?> entityClass) {
+        LongAdder adder = misses.get(entityClass);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 查询实体，缓存id列表
+     * @param paging 分页参数，需要实现equals，不分页时为null
+     * @param loader 未命中时执行查询
+     */
+    <T> List<T> findAll(EntityManager em, Class<T> entityClass, ConditionNode node, Object paging,
+                        FetchPlan fetchPlan, Supplier<List<T>> loader) {
+        EntityType<T> type = em.getMetamodel().entity(entityClass);
+        if (!type.hasSingleIdAttribute()) {
+            return loader.get();
+        }
+        Key key = new Key(entityClass, node, "findAll", paging);
+        long generation = generation(entityClass);
+        Object cached = lookup(key, generation);
+        if (cached != null) {
+            List<T> content = load(em, type, (List<?>) cached, fetchPlan);
+            if (content != null) {
+                hit(entityClass);
+                return content;
+            }
+        }
+        miss(entityClass);
+        List<T> content = loader.get();
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Object> ids = new ArrayList<>(content.size());
+        for (T entity : content) {
+            ids.add(util.getIdentifier(entity));
+        }
+        store(key, generation, Collections.unmodifiableList(ids));
+        return content;
+    }
+
+    /**
+     * 计数查询，缓存数量
+     */
+    long count(Class<?> entityClass, ConditionNode node, LongSupplier loader) {
+        Key key = new Key(entityClass, node, "count", null);
+        long generation = generation(entityClass);
+        Object cached = lookup(key, generation);
+        if (cached != null) {
+            hit(entityClass);
+            return (Long) cached;
+        }
+        miss(entityClass);
+        long count = loader.getAsLong();
+        store(key, generation, count);
+        return count;
+    }
+
+    private synchronized Object lookup(Key key, long generation) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.generation != generation || System.nanoTime() - entry.expiresAt > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 查询期间实体类型失效过则不缓存
+     */
+    private void store(Key key, long generation, Object value) {
+        if (generation(key.entityClass) != generation) {
+            return;
+        }
+        Entry entry = new Entry(value, generation, System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * 按id加载实体，保持缓存的顺序；有实体已不存在时返回null，按未命中处理
+     */
+    private <T> List<T> load(EntityManager em, EntityType<T> type, List<?> ids, FetchPlan fetchPlan) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String idName = type.getId(type.getIdType().getJavaType()).getName();
+        ConditionNode node = SpecificationFactory.createNode(Handler.IN, idName, InValues.of(ids, InStrategy.getDefault()));
+        List<T> entities = QueryFactory.createQuery(em, type.getJavaType(), node, fetchPlan).getResultList();
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, T> byId = new HashMap<>(entities.size() * 2);
+        for (T entity : entities) {
+            byId.put(util.getIdentifier(entity), entity);
+        }
+        List<T> content = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            T entity = byId.get(id);
+            if (entity == null) {
+                return null;
+            }
+            content.add(entity);
+        }
+        return content;
+    }
+
+    private long generation(Class<?> entityClass) {
+        return generations.computeIfAbsent(entityClass, c -> new AtomicLong()).get();
+    }
+
+    private void hit(Class<?> entityClass) {
+        hits.computeIfAbsent(entityClass, c -> new LongAdder()).increment();
+    }
+
+    private void miss(Class<?> entityClass) {
+        misses.computeIfAbsent(entityClass, c -> new LongAdder()).increment();
+    }
+
+    private static final class Key {
+        private final Class<?> entityClass;
+        private final ConditionNode node;
+        private final String terminal;
+        private final Object paging;
+
+        private Key(Class<?> entityClass, ConditionNode node, String terminal, Object paging) {
+            this.entityClass = entityClass;
+            this.node = node;
+            this.terminal = terminal;
+            this.paging = paging;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return entityClass == key.entityClass
+                    && terminal.equals(key.terminal)
+                    && node.equals(key.node)
+                    && Objects.equals(paging, key.paging);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityClass, node, terminal, paging);
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long generation;
+        private final long expiresAt;
+
+        private Entry(Object value, long generation, long expiresAt) {
+            this.value = value;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
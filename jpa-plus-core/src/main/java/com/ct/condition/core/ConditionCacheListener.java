@@ -0,0 +1,22 @@
+package com.ct.condition.core;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 实体监听器，实体增删改时使{@link ConditionCache}中该实体类型的查询失效，
+ * 在实体上添加@EntityListeners(ConditionCacheListener.class)，或在orm.xml中配置为默认监听器
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public class ConditionCacheListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Object entity) {
+        ConditionCache.invalidateAll(entity.getClass());
+    }
+}
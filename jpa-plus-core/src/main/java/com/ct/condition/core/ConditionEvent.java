@@ -0,0 +1,103 @@
+package com.ct.condition.core;
+
+/**
+ * 监听器收到的事件，不可变
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class ConditionEvent {
+
+    private final Class<?> entityClass;
+    private final String shape;
+    private final long shapeFingerprint;
+    private final int predicateCount;
+    private final int depth;
+    private final long nanos;
+    private final String terminal;
+    private final long rows;
+    private final boolean failed;
+
+    ConditionEvent(Class<?> entityClass, String shape, long shapeFingerprint, int predicateCount, int depth,
+                   long nanos, String terminal, long rows, boolean failed) {
+        this.entityClass = entityClass;
+        this.shape = shape;
+        this.shapeFingerprint = shapeFingerprint;
+        this.predicateCount = predicateCount;
+        this.depth = depth;
+        this.nanos = nanos;
+        this.terminal = terminal;
+        this.rows = rows;
+        this.failed = failed;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 条件的结构，只包含操作符、条件类型和字段，不包含值，如：AND[EQUAL(username),OR[GE(age),LE(age)]]
+     */
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * 条件的结构指纹，见{@link AbstractCondition#shapeFingerprint()}
+     */
+    public long getShapeFingerprint() {
+        return shapeFingerprint;
+    }
+
+    /**
+     * 结构指纹的16进制形式，适合作为指标的标签
+     */
+    public String getShapeId() {
+        return Long.toHexString(shapeFingerprint);
+    }
+
+    /**
+     * 叶子条件的数量
+     */
+    public int getPredicateCount() {
+        return predicateCount;
+    }
+
+    /**
+     * 嵌套深度，只有一个条件时为1，没有条件时为0
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * 执行的方法，如findAll、count，只在onExecute中有值
+     */
+    public String getTerminal() {
+        return terminal;
+    }
+
+    /**
+     * 返回或影响的行数，未知时为-1（如stream、exists、执行失败）
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 执行是否抛出了异常，只在onExecute中可能为true
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return "ConditionEvent{entity=" + entityClass.getSimpleName() + ", shape=" + shape + ", predicates=" + predicateCount
+                + ", depth=" + depth + ", nanos=" + nanos + ", terminal=" + terminal + ", rows=" + rows + ", failed=" + failed + "}";
+    }
+}
@@ -0,0 +1,29 @@
+package com.ct.condition.core;
+
+/**
+ * 条件构造和执行的监听器，通过{@link ConditionListeners#register(ConditionListener)}注册，
+ * 用于采集耗时、条件规模等指标；回调在调用方线程中同步执行，实现需要线程安全且尽量轻量
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public interface ConditionListener {
+
+    /**
+     * 条件构造完成，第一次转换为Specification、冻结或执行时触发，耗时为生成和改写条件树的时间，不包括调用方构造条件的时间
+     */
+    default void onBuild(ConditionEvent event) {
+    }
+
+    /**
+     * 条件转换为Predicate
+     */
+    default void onTranslate(ConditionEvent event) {
+    }
+
+    /**
+     * 通过本组件的方法（如findAll、count、update）执行查询，查询抛出异常时同样触发，见{@link ConditionEvent#isFailed()}
+     */
+    default void onExecute(ConditionEvent event) {
+    }
+}
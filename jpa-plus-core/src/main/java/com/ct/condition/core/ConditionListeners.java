@@ -0,0 +1,170 @@
+package com.ct.condition.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.criteria.Predicate;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 监听器注册表，没有注册监听器时各个埋点只做一次volatile读，不计时也不计算条件结构；
+ * 事件中的条件结构和结构指纹都来自规范化后、{@link ConditionOptimizer}改写前的条件树，见{@link OptimizedNode}
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class ConditionListeners {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConditionListeners.class);
+    private static final ConditionListener[] EMPTY = new ConditionListener[0];
+
+    private static volatile ConditionListener[] listeners = EMPTY;
+
+    private ConditionListeners() {
+    }
+
+    public static synchronized void register(ConditionListener listener) {
+        if (listener == null) {
+            throw JpaPlusException.getException("Listener cannot be null");
+        }
+        ConditionListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[listeners.length] = listener;
+        listeners = copy;
+    }
+
+    public static synchronized void unregister(ConditionListener listener) {
+        listeners = Arrays.stream(listeners).filter(i -> i != listener).toArray(ConditionListener[]::new);
+    }
+
+    static boolean isEnabled() {
+        return listeners.length != 0;
+    }
+
+    /**
+     * 条件构造完成
+     * @param nanos 生成和改写条件树的耗时
+     */
+    static void built(Class<?> entityClass, ConditionNode node, long nanos) {
+        ConditionListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        ConditionEvent event = event(entityClass, node, nanos, null, -1, false);
+        for (ConditionListener listener : current) {
+            try {
+                listener.onBuild(event);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Condition listener {} failed", listener, e);
+            }
+        }
+    }
+
+    /**
+     * 转换条件为Predicate并计时
+     */
+    static Predicate toPredicate(ConditionNode node, PredicateContext context) {
+        ConditionListener[] current = listeners;
+        if (current.length == 0) {
+            return node.toPredicate(context);
+        }
+        long start = System.nanoTime();
+        Predicate predicate = node.toPredicate(context);
+        ConditionEvent event = event(context.getRoot().getJavaType(), node, System.nanoTime() - start, null, -1, false);
+        for (ConditionListener listener : current) {
+            try {
+                listener.onTranslate(event);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Condition listener {} failed", listener, e);
+            }
+        }
+        return predicate;
+    }
+
+    /**
+     * 执行查询并记录耗时和行数，查询抛出异常时同样通知监听器；
+     * 条件恒假时不执行查询，返回空结果，同样通知监听器
+     * @param terminal 执行的方法名
+     * @param action 执行查询
+     * @param empty 条件恒假时的结果
+     * @param rows 从结果中获取行数，为null时行数未知
+     */
+    static <R> R execute(Class<?> entityClass, ConditionNode node, String terminal, Supplier<R> action, Supplier<R> empty,
+                         ToLongFunction<R> rows) {
+        Supplier<R> query = OptimizedNode.isFalse(node) ? empty : action;
+        ConditionListener[] current = listeners;
+        if (current.length == 0) {
+            return query.get();
+        }
+        long start = System.nanoTime();
+        R result = null;
+        boolean failed = true;
+        try {
+            result = query.get();
+            failed = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            long count = failed || rows == null ? -1 : rows.applyAsLong(result);
+            ConditionEvent event = event(entityClass, node, nanos, terminal, count, failed);
+            for (ConditionListener listener : current) {
+                try {
+                    listener.onExecute(event);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Condition listener {} failed", listener, e);
+                }
+            }
+        }
+    }
+
+    private static ConditionEvent event(Class<?> entityClass, ConditionNode node, long nanos, String terminal, long rows,
+                                        boolean failed) {
+        Shape shape = new Shape();
+        int depth = shape.append(node);
+        return new ConditionEvent(entityClass, shape.text.toString(), Fingerprint.of(entityClass, node.shapeHash()),
+                shape.predicates, depth, nanos, terminal, rows, failed);
+    }
+
+    /**
+     * 条件结构，只包含操作符、条件类型和字段
+     */
+    private static final class Shape {
+        private final StringBuilder text = new StringBuilder();
+        private int predicates;
+
+        /**
+         * @return 节点的深度
+         */
+        private int append(ConditionNode node) {
+            if (node instanceof OptimizedNode) {
+                return append(((OptimizedNode) node).getSource());
+            }
+            if (node instanceof PredicateNode) {
+                PredicateNode predicate = (PredicateNode) node;
+                text.append(predicate.getHandler()).append('(').append(predicate.getFieldName()).append(')');
+                predicates++;
+                return 1;
+            }
+            if (!(node instanceof OperatorNode)) {
+                text.append(node instanceof ConstantNode ? node : node.getClass().getSimpleName());
+                return 1;
+            }
+            OperatorNode operator = (OperatorNode) node;
+            ConditionNode[] children = operator.getChildren();
+            if (children.length == 1) {
+                return append(children[0]);
+            }
+            text.append(operator.getOperator()).append('[');
+            int depth = 0;
+            for (int i = 0; i < children.length; i++) {
+                if (i > 0) {
+                    text.append(',');
+                }
+                depth = Math.max(depth, append(children[i]));
+            }
+            text.append(']');
+            return children.length == 0 ? 0 : depth + 1;
+        }
+    }
+}
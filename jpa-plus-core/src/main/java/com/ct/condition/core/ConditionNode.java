@@ -0,0 +1,30 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.Predicate;
+
+/**
+ * 条件树节点，构造条件时记录，执行时才转换为Predicate
+ * 节点创建后不可变，可以被多个条件树共享
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+interface ConditionNode {
+
+    /**
+     * 转换为Predicate
+     * @param context
+     * @return 没有条件时返回null
+     */
+    Predicate toPredicate(PredicateContext context);
+
+    /**
+     * 结构指纹，包括操作符、条件类型、字段路径和in集合大小的分桶，不包括值，在节点创建时计算
+     */
+    long shapeHash();
+
+    /**
+     * 包括值的指纹，在节点创建时计算
+     */
+    long valueHash();
+}
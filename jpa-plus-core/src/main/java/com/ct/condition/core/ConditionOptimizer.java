@@ -0,0 +1,266 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.Predicate;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 生成查询前对条件树做等价改写，减少生成的谓词数量：
+ * 去掉重复的条件；
+ * 或关系中同一字段的多个eq合并为一个in；
+ * 且关系中同一字段的ge和le合并为between；
+ * 且关系中互相矛盾的条件（如eq(a, 1).eq(a, 2)、isNull(a).isNotNull(a)、ge(a, 2).le(a, 1)）改写为{@link ConstantNode#FALSE}，
+ * 由本组件执行的查询直接返回空结果；
+ * 或关系中的恒真条件（如isNull(a).or().isNotNull(a)）去掉所在的分组。
+ * 只比较类型相同的数值和时间，值为参数占位符的条件不参与改写
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class ConditionOptimizer {
+
+    private ConditionOptimizer() {
+    }
+
+    /**
+     * @param node 条件树
+     * @return 语义相同的条件树，条件恒真时返回空的分组，恒假时返回{@link ConstantNode#FALSE}
+     */
+    static ConditionNode optimize(ConditionNode node) {
+        ConditionNode optimized = visit(OperatorNode.normalize(node));
+        if (optimized == ConstantNode.TRUE) {
+            return new OperatorNode(Predicate.BooleanOperator.AND, OperatorNode.EMPTY);
+        }
+        return optimized;
+    }
+
+    private static ConditionNode visit(ConditionNode node) {
+        if (!(node instanceof OperatorNode)) {
+            return node;
+        }
+        OperatorNode operatorNode = (OperatorNode) node;
+        Predicate.BooleanOperator operator = operatorNode.getOperator();
+        ConditionNode absorbing = operator == Predicate.BooleanOperator.AND ? ConstantNode.FALSE : ConstantNode.TRUE;
+        ConditionNode neutral = operator == Predicate.BooleanOperator.AND ? ConstantNode.TRUE : ConstantNode.FALSE;
+        LinkedHashSet<ConditionNode> distinct = new LinkedHashSet<>();
+        for (ConditionNode child : operatorNode.getChildren()) {
+            ConditionNode optimized = visit(child);
+            if (optimized == absorbing) {
+                return absorbing;
+            }
+            if (optimized == neutral) {
+                continue;
+            }
+            if (optimized instanceof OperatorNode && ((OperatorNode) optimized).getOperator() == operator) {
+                distinct.addAll(Arrays.asList(((OperatorNode) optimized).getChildren()));
+            } else {
+                distinct.add(optimized);
+            }
+        }
+        List<ConditionNode> children = new ArrayList<>(distinct);
+        if (children.isEmpty()) {
+            // 空的分组不产生条件，子节点全部被消去时返回对应的常量
+            return operatorNode.getChildren().length == 0 ? node : neutral;
+        }
+        if (operator == Predicate.BooleanOperator.AND ? !reduceAnd(children) : !reduceOr(children)) {
+            return absorbing;
+        }
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        return new OperatorNode(operator, children.toArray(OperatorNode.EMPTY));
+    }
+
+    /**
+     * 改写且关系的子节点
+     * @return 存在矛盾时返回false
+     */
+    private static boolean reduceAnd(List<ConditionNode> children) {
+        for (List<PredicateNode> group : groupByField(children).values()) {
+            if (group.size() < 2) {
+                continue;
+            }
+            if (contradicts(group)) {
+                return false;
+            }
+            PredicateNode lower = single(group, Handler.GE);
+            PredicateNode upper = single(group, Handler.LE);
+            if (lower != null && upper != null && single(group, Handler.GT) == null && single(group, Handler.LT) == null
+                    && sameClass(Arrays.asList(lower.getValue(), upper.getValue()))) {
+                PredicateNode between = new PredicateNode(Handler.BETWEEN, lower.getFieldName(), lower.getPath(),
+                        lower.getJoinType(), new Bounds(lower.getValue(), upper.getValue()));
+                children.set(children.indexOf(lower), between);
+                children.remove(upper);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 改写或关系的子节点
+     * @return 存在恒真条件时返回false
+     */
+    private static boolean reduceOr(List<ConditionNode> children) {
+        for (List<PredicateNode> group : groupByField(children).values()) {
+            if (group.size() < 2) {
+                continue;
+            }
+            // 多级路径可能生成join，去掉条件会改变连接结果，只处理实体自身的属性
+            if (single(group, Handler.IS_NULL) != null && single(group, Handler.IS_NOT_NULL) != null
+                    && group.get(0).getPath().length == 1) {
+                return false;
+            }
+            List<PredicateNode> merged = new ArrayList<>(group.size());
+            List<Object> values = new ArrayList<>();
+            InStrategy strategy = null;
+            for (PredicateNode node : group) {
+                if (node.getHandler() == Handler.EQUAL) {
+                    values.add(node.getValue());
+                    merged.add(node);
+                } else if (node.getHandler() == Handler.IN && ((InValues) node.getValue()).getParam() == null) {
+                    values.addAll(((InValues) node.getValue()).getValues());
+                    strategy = strategy == null ? ((InValues) node.getValue()).getStrategy() : strategy;
+                    merged.add(node);
+                }
+            }
+            if (merged.size() < 2 || !sameClass(values)) {
+                continue;
+            }
+            PredicateNode first = merged.get(0);
+            PredicateNode in = new PredicateNode(Handler.IN, first.getFieldName(), first.getPath(), first.getJoinType(),
+                    InValues.of(values, strategy == null ? InStrategy.getDefault() : strategy));
+            children.set(children.indexOf(first), in);
+            children.removeAll(merged.subList(1, merged.size()));
+        }
+        return true;
+    }
+
+    /**
+     * 同一字段上的条件两两之间是否矛盾
+     */
+    private static boolean contradicts(List<PredicateNode> group) {
+        for (int i = 0; i < group.size(); i++) {
+            for (int j = i + 1; j < group.size(); j++) {
+                if (contradicts(group.get(i), group.get(j)) || contradicts(group.get(j), group.get(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean contradicts(PredicateNode a, PredicateNode b) {
+        Handler left = a.getHandler();
+        Handler right = b.getHandler();
+        if (left == Handler.IS_NULL) {
+            return right != Handler.IS_NULL;
+        }
+        if (left == Handler.EQUAL) {
+            if (right == Handler.IN) {
+                List<?> values = ((InValues) b.getValue()).getValues();
+                for (Object value : values) {
+                    Integer result = compare(a.getValue(), value);
+                    if (result == null || result == 0) {
+                        return false;
+                    }
+                }
+                return !values.isEmpty();
+            }
+            Integer result = compare(a.getValue(), b.getValue());
+            if (result == null) {
+                return false;
+            }
+            switch (right) {
+                case EQUAL:
+                    return result != 0;
+                case NOT_EQUAL:
+                    return result == 0;
+                case GT:
+                    return result <= 0;
+                case GE:
+                    return result < 0;
+                case LT:
+                    return result >= 0;
+                case LE:
+                    return result > 0;
+                default:
+                    return false;
+            }
+        }
+        if (left == Handler.GT || left == Handler.GE) {
+            Integer result = compare(a.getValue(), b.getValue());
+            if (result == null) {
+                return false;
+            }
+            boolean strict = left == Handler.GT || right == Handler.LT;
+            if (right == Handler.LT || right == Handler.LE) {
+                return strict ? result >= 0 : result > 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按字段路径和连接方式分组，只包括值不是参数占位符的叶子节点
+     */
+    private static Map<List<Object>, List<PredicateNode>> groupByField(List<ConditionNode> children) {
+        Map<List<Object>, List<PredicateNode>> groups = new LinkedHashMap<>();
+        for (ConditionNode child : children) {
+            if (!(child instanceof PredicateNode)) {
+                continue;
+            }
+            PredicateNode node = (PredicateNode) child;
+            if (node.getValue() instanceof Param
+                    || node.getValue() instanceof InValues && ((InValues) node.getValue()).getParam() != null) {
+                continue;
+            }
+            List<Object> key = Arrays.asList(Arrays.asList(node.getPath()), node.getJoinType());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(node);
+        }
+        return groups;
+    }
+
+    /**
+     * 分组中唯一的该类型条件，不存在或有多个时返回null
+     */
+    private static PredicateNode single(List<PredicateNode> group, Handler handler) {
+        PredicateNode result = null;
+        for (PredicateNode node : group) {
+            if (node.getHandler() == handler) {
+                if (result != null) {
+                    return null;
+                }
+                result = node;
+            }
+        }
+        return result;
+    }
+
+    private static boolean sameClass(List<?> values) {
+        for (Object value : values) {
+            if (value == null || value.getClass() != values.get(0).getClass()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 比较两个类型相同的值，不能比较时返回null；
+     * 字符串的比较结果取决于数据库的排序规则（如忽略大小写），枚举可能按名称存储，都不参与比较
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Integer compare(Object a, Object b) {
+        if (a == null || b == null || a.getClass() != b.getClass()
+                || !(a instanceof Number || a instanceof Date || a instanceof Temporal) || !(a instanceof Comparable)) {
+            return null;
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+}
@@ -1,6 +1,9 @@
 package com.ct.condition.core;
 
 
+import javax.persistence.metamodel.Metamodel;
+import java.util.function.Consumer;
+
 /**
  * 静态工厂方法类
  *
@@ -10,10 +13,143 @@ package com.ct.condition.core;
 public final class Conditions {
 
     public static <T> SimpleCondition<T> use(Class<T> clzz){
-        return new SimpleCondition<>();
+        return new SimpleCondition<>(clzz);
     }
 
     public static <T> SimpleLambdaCondition<T> lambdaUse(Class<T> clzz){
-        return new SimpleLambdaCondition<>();
+        return new SimpleLambdaCondition<>(clzz);
+    }
+
+    /**
+     * 绑定元模型的条件，构造时校验属性并转换值的类型
+     * @param clzz
+     * @param metamodel EntityManager#getMetamodel()
+     * @return SimpleCondition
+     */
+    public static <T> SimpleCondition<T> use(Class<T> clzz, Metamodel metamodel){
+        return new SimpleCondition<>(clzz).bind(metamodel);
+    }
+
+    public static <T> SimpleLambdaCondition<T> lambdaUse(Class<T> clzz, Metamodel metamodel){
+        return new SimpleLambdaCondition<>(clzz).bind(metamodel);
+    }
+
+    /**
+     * 使用生成的属性描述构造条件，如：Conditions.typedUse(User.class).eq(UserCols.USERNAME, "lisi")
+     * @param clzz
+     * @return TypedCondition
+     */
+    public static <T> TypedCondition<T> typedUse(Class<T> clzz){
+        return new TypedCondition<>(clzz);
+    }
+
+    public static <T> TypedCondition<T> typedUse(Class<T> clzz, Metamodel metamodel){
+        return new TypedCondition<>(clzz).bind(metamodel);
+    }
+
+    /**
+     * 过滤表达式解析器，缓存编译后的模板，应保存为常量复用，如：
+     * Conditions.filter(User.class).fields("username", "id", "realname").parse("username=rl:li;id=in:1,2,3|realname=null", em.getMetamodel())
+     * @param clzz
+     * @return FilterParser
+     */
+    public static <T> FilterParser<T> filter(Class<T> clzz){
+        return new FilterParser<>(clzz);
+    }
+
+    /**
+     * 定义预编译条件，如：
+     * Conditions.prepare(User.class, c -> c.eq(User::getUsername, Conditions.param("u")))
+     * @param clzz
+     * @param consumer
+     * @return PreparedCondition
+     */
+    public static <T> PreparedCondition<T> prepare(Class<T> clzz, Consumer<SimpleLambdaCondition<T>> consumer){
+        SimpleLambdaCondition<T> condition = lambdaUse(clzz);
+        consumer.accept(condition);
+        return condition.prepare();
+    }
+
+    /**
+     * 批量查询，多个条件在一次数据库往返中执行，如：
+     * Conditions.batch(User.class).add(c1).add(c2).execute(entityManager)
+     * @param clzz
+     * @return BatchQuery
+     */
+    public static <T> BatchQuery<T> batch(Class<T> clzz){
+        return new BatchQuery<>(clzz);
+    }
+
+    /**
+     * 按条件批量更新，如：
+     * Conditions.update(User.class).set(User::getRealname, "李四").where(condition).execute(entityManager)
+     * @param clzz
+     * @return UpdateQuery
+     */
+    public static <T> UpdateQuery<T> update(Class<T> clzz){
+        return new UpdateQuery<>(clzz);
+    }
+
+    /**
+     * 按条件批量删除，如：
+     * Conditions.delete(User.class).where(condition).execute(entityManager)
+     * @param clzz
+     * @return DeleteQuery
+     */
+    public static <T> DeleteQuery<T> delete(Class<T> clzz){
+        return new DeleteQuery<>(clzz);
+    }
+
+    /**
+     * 命名参数占位符
+     * @param name
+     * @return Param
+     */
+    public static Param param(String name){
+        if (StringUtil.isEmpty(name)) {
+            throw JpaPlusException.getException("Param name cannot be empty");
+        }
+        return new Param(name);
+    }
+
+    /**
+     * 位置参数占位符，按在条件中出现的顺序编号
+     * @return Param
+     */
+    public static Param param(){
+        return new Param(null);
+    }
+
+    /**
+     * 查询部分字段，如：
+     * Conditions.select(User::getId, User::getUsername).where(condition).into(UserSummary.class)
+     * @param columns
+     * @return Projection
+     */
+    @SafeVarargs
+    public static <T> Projection<T> select(SFunction<T, ?>... columns){
+        String[] fields = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            fields[i] = LambdaUtils.extractColumnName(columns[i]);
+        }
+        return new Projection<>(null, fields);
+    }
+
+    /**
+     * 使用生成的属性描述查询部分字段，如：Conditions.select(UserCols.ID, UserCols.USERNAME)
+     * @param columns
+     * @return Projection
+     */
+    @SafeVarargs
+    public static <T> Projection<T> select(Column<T, ?>... columns){
+        String[] fields = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            fields[i] = columns[i].getName();
+        }
+        return new Projection<>(columns.length == 0 ? null : columns[0].getEntityClass(), fields);
+    }
+
+    public static <T> Projection<T> select(Class<T> clzz, String... fields){
+        return new Projection<>(clzz, fields);
     }
 }
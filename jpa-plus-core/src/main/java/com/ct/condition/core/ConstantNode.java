@@ -0,0 +1,38 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.Predicate;
+
+/**
+ * 常量节点，由{@link ConditionOptimizer}在发现矛盾或恒真条件时生成
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+enum ConstantNode implements ConditionNode {
+
+    /**
+     * 恒真
+     */
+    TRUE,
+    /**
+     * 恒假，由本组件执行的查询直接返回空结果，不访问数据库
+     */
+    FALSE;
+
+    private final long hash = Fingerprint.mix(Fingerprint.SEED, name().hashCode());
+
+    @Override
+    public Predicate toPredicate(PredicateContext context) {
+        return this == TRUE ? context.getCriteriaBuilder().conjunction() : context.getCriteriaBuilder().disjunction();
+    }
+
+    @Override
+    public long shapeHash() {
+        return hash;
+    }
+
+    @Override
+    public long valueHash() {
+        return hash;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ct.condition.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 通过构造方法将查询结果的一行转换为DTO，构造方法按DTO类型和列类型解析一次后缓存为MethodHandle
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class ConstructorMapper<D> {
+
+    private static final ClassValue<ConcurrentMap<List<Class<?>>, MethodHandle>> CACHE =
+            new ClassValue<ConcurrentMap<List<Class<?>>, MethodHandle>>() {
+                @Override
+                protected ConcurrentMap<List<Class<?>>, MethodHandle> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>(4);
+                }
+            };
+
+    private final MethodHandle handle;
+
+    private ConstructorMapper(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    static <D> ConstructorMapper<D> of(Class<D> type, Class<?>[] columnTypes) {
+        MethodHandle handle = CACHE.get(type).computeIfAbsent(Arrays.asList(columnTypes), key -> resolve(type, columnTypes));
+        return new ConstructorMapper<>(handle);
+    }
+
+    @SuppressWarnings("unchecked")
+    D map(Object[] row) {
+        try {
+            Object instance = handle.invokeExact(row);
+            return (D) instance;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw JpaPlusException.getException("Cannot create instance by constructor", e);
+        }
+    }
+
+    private static MethodHandle resolve(Class<?> type, Class<?>[] columnTypes) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != columnTypes.length || !accept(parameterTypes, columnTypes)) {
+                continue;
+            }
+            try {
+                if (!Modifier.isPublic(constructor.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+                    constructor.setAccessible(true);
+                }
+                return MethodHandles.lookup().unreflectConstructor(constructor)
+                        .asSpreader(Object[].class, columnTypes.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw JpaPlusException.getException("Cannot access constructor of " + type.getName(), e);
+            }
+        }
+        throw JpaPlusException.getException("No constructor of " + type.getName() + " accepts " + Arrays.toString(columnTypes));
+    }
+
+    private static boolean accept(Class<?>[] parameterTypes, Class<?>[] columnTypes) {
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!box(parameterTypes[i]).isAssignableFrom(box(columnTypes[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
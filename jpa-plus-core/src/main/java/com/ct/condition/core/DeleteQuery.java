@@ -0,0 +1,64 @@
+package com.ct.condition.core;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 按条件批量删除，生成一条delete语句，不加载实体，不触发级联和实体监听器，如：
+ * Conditions.delete(User.class).where(condition).execute(em)
+ * 需要在事务中执行，条件中不能使用关联属性的路径
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class DeleteQuery<T> {
+
+    private final Class<T> entityClass;
+    private ConditionNode node;
+    private boolean evict;
+
+    DeleteQuery(Class<T> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * 删除的条件，使用条件的快照；删除全部数据时需要显式传入空的条件
+     */
+    public DeleteQuery<T> where(AbstractCondition<?, ?, T> condition) {
+        this.node = condition.buildNode();
+        return this;
+    }
+
+    public DeleteQuery<T> where(FrozenCondition<T> condition) {
+        this.node = condition.getNode();
+        return this;
+    }
+
+    /**
+     * 执行后是否将该类型的实体从持久化上下文和二级缓存中移除
+     */
+    public DeleteQuery<T> evict(boolean evict) {
+        this.evict = evict;
+        return this;
+    }
+
+    /**
+     * 执行删除
+     * @param em
+     * @return 删除的行数
+     */
+    public int execute(EntityManager em) {
+        if (node == null) {
+            throw JpaPlusException.getException("Condition is required, call where(condition) first");
+        }
+        int rows = ConditionListeners.execute(entityClass, node, "delete",
+                () -> QueryFactory.createDeleteQuery(em, entityClass, node).executeUpdate(), () -> 0, Integer::longValue);
+        if (rows == 0) {
+            return rows;
+        }
+        ConditionCache.invalidateAll(entityClass);
+        if (evict) {
+            QueryFactory.evict(em, entityClass);
+        }
+        return rows;
+    }
+}
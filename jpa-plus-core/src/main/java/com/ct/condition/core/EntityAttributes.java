@@ -0,0 +1,170 @@
+package com.ct.condition.core;
+
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 实体属性的元模型信息，按Metamodel和实体类缓存，每个属性路径只解析一次
+ * 用于在构造条件时校验属性名，并将条件值转换为属性的类型
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class EntityAttributes {
+
+    private static final Map<Metamodel, ConcurrentMap<Class<?>, EntityAttributes>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Class<?> entityClass;
+    private final ManagedType<?> entityType;
+    private final ConcurrentMap<String, Field> fields = new ConcurrentHashMap<>();
+
+    private EntityAttributes(Class<?> entityClass, ManagedType<?> entityType) {
+        this.entityClass = entityClass;
+        this.entityType = entityType;
+    }
+
+    static EntityAttributes of(Metamodel metamodel, Class<?> entityClass) {
+        ConcurrentMap<Class<?>, EntityAttributes> entities = CACHE.computeIfAbsent(metamodel, m -> new ConcurrentHashMap<>());
+        return entities.computeIfAbsent(entityClass, clzz -> {
+            try {
+                return new EntityAttributes(clzz, metamodel.managedType(clzz));
+            } catch (IllegalArgumentException e) {
+                throw JpaPlusException.getException(clzz.getName() + " is not a managed type", e);
+            }
+        });
+    }
+
+    /**
+     * 获取属性路径对应的属性，不存在时抛出异常
+     * @param path a.b形式的属性路径
+     * @return Field
+     */
+    Field get(String path) {
+        Field field = fields.get(path);
+        if (field == null) {
+            field = fields.computeIfAbsent(path, this::resolve);
+        }
+        return field;
+    }
+
+    private Field resolve(String path) {
+        String[] tokens = PathResolver.tokenize(path);
+        ManagedType<?> type = entityType;
+        Attribute<?, ?> attribute = null;
+        for (int i = 0; i < tokens.length; i++) {
+            if (type == null) {
+                throw JpaPlusException.getException("Attribute " + tokens[i - 1] + " of path " + path + " in "
+                        + entityClass.getSimpleName() + " cannot be dereferenced");
+            }
+            try {
+                attribute = type.getAttribute(tokens[i]);
+            } catch (IllegalArgumentException e) {
+                throw JpaPlusException.getException("Unknown attribute " + path + " in " + entityClass.getSimpleName(), e);
+            }
+            type = managedType(elementType(attribute));
+        }
+        return new Field(path, tokens, ClassUtils.resolvePrimitiveIfNecessary(elementType(attribute).getJavaType()));
+    }
+
+    private static Type<?> elementType(Attribute<?, ?> attribute) {
+        if (attribute instanceof PluralAttribute) {
+            return ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+        }
+        return ((SingularAttribute<?, ?>) attribute).getType();
+    }
+
+    private static ManagedType<?> managedType(Type<?> type) {
+        return type instanceof ManagedType ? (ManagedType<?>) type : null;
+    }
+
+    /**
+     * 解析后的属性，不可变
+     */
+    static final class Field {
+
+        private final String name;
+        private final String[] path;
+        private final Class<?> javaType;
+
+        private Field(String name, String[] path, Class<?> javaType) {
+            this.name = name;
+            this.path = path;
+            this.javaType = javaType;
+        }
+
+        String[] getPath() {
+            return path;
+        }
+
+        Class<?> getJavaType() {
+            return javaType;
+        }
+
+        /**
+         * 将条件值转换为属性类型，参数占位符和模糊查询的值不转换
+         */
+        Object coerce(Handler handler, Object val) {
+            if (val == null || val instanceof Param) {
+                return val;
+            }
+            switch (handler) {
+                case ALL_LIKE:
+                case LEFT_LIKE:
+                case RIGHT_LIKE:
+                case ALL_LIKE_IGNORE_CASE:
+                case LEFT_LIKE_IGNORE_CASE:
+                case RIGHT_LIKE_IGNORE_CASE:
+                case MATCH:
+                    return val;
+                case IN:
+                case NOT_IN: {
+                    InValues in = (InValues) val;
+                    if (in.getParam() != null) {
+                        return in;
+                    }
+                    List<Object> values = new ArrayList<>(in.getValues().size());
+                    for (Object value : in.getValues()) {
+                        values.add(convert(value));
+                    }
+                    return InValues.of(values, in.getStrategy());
+                }
+                default:
+                    return convert(val);
+            }
+        }
+
+        private Object convert(Object value) {
+            if (value == null || javaType.isInstance(value)) {
+                return value;
+            }
+            ConversionService conversionService = DefaultConversionService.getSharedInstance();
+            if (!conversionService.canConvert(value.getClass(), javaType)) {
+                throw JpaPlusException.getException("Cannot convert " + value.getClass().getSimpleName()
+                        + " to " + javaType.getSimpleName() + " for attribute " + name);
+            }
+            try {
+                return conversionService.convert(value, javaType);
+            } catch (ConversionException e) {
+                throw JpaPlusException.getException("Cannot convert " + value + " to "
+                        + javaType.getSimpleName() + " for attribute " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ct.condition.core;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.AbstractQuery;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 查询时的抓取计划，包括fetch join和实体图，不可变对象
+ * fetch join在执行Specification时应用，计数查询不应用；实体图只能在由本组件执行的查询中通过hint应用
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class FetchPlan {
+
+    static final FetchPlan EMPTY = new FetchPlan(Collections.emptyList(), null, null);
+
+    private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    private final List<FetchPath> fetches;
+    private final String graphName;
+    private final List<String[]> graphAttributes;
+
+    private FetchPlan(List<FetchPath> fetches, String graphName, List<String[]> graphAttributes) {
+        this.fetches = fetches;
+        this.graphName = graphName;
+        this.graphAttributes = graphAttributes;
+    }
+
+    FetchPlan fetch(String path, JoinType joinType) {
+        List<FetchPath> list = new ArrayList<>(fetches);
+        list.add(new FetchPath(PathResolver.tokenize(path), joinType));
+        return new FetchPlan(Collections.unmodifiableList(list), graphName, graphAttributes);
+    }
+
+    FetchPlan namedGraph(String name) {
+        return new FetchPlan(fetches, name, null);
+    }
+
+    FetchPlan graph(List<String> attributes) {
+        List<String[]> paths = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            paths.add(PathResolver.tokenize(attribute));
+        }
+        return new FetchPlan(fetches, null, Collections.unmodifiableList(paths));
+    }
+
+    boolean isEmpty() {
+        return fetches.isEmpty() && graphName == null && graphAttributes == null;
+    }
+
+    /**
+     * 应用fetch join，计数查询（结果类型为Long）时忽略，已存在的fetch不会重复创建；
+     * 抓取集合属性时设置distinct，避免重复的实体
+     */
+    void applyFetches(Root<?> root, AbstractQuery<?> query) {
+        if (fetches.isEmpty() || isCountQuery(query)) {
+            return;
+        }
+        for (FetchPath fetchPath : fetches) {
+            FetchParent<?, ?> parent = root;
+            for (String attribute : fetchPath.path) {
+                Fetch<?, ?> fetch = findFetch(parent, attribute);
+                if (fetch == null) {
+                    fetch = parent.fetch(attribute, fetchPath.joinType);
+                }
+                if (fetch.getAttribute().isCollection()) {
+                    query.distinct(true);
+                }
+                parent = fetch;
+            }
+        }
+    }
+
+    /**
+     * 通过hint应用实体图
+     */
+    <T> void applyHints(TypedQuery<?> query, EntityManager em, Class<T> entityClass) {
+        if (graphName != null) {
+            query.setHint(LOAD_GRAPH, em.getEntityGraph(graphName));
+        } else if (graphAttributes != null) {
+            EntityGraph<T> graph = em.createEntityGraph(entityClass);
+            for (String[] names : graphAttributes) {
+                if (names.length == 1) {
+                    graph.addAttributeNodes(names[0]);
+                    continue;
+                }
+                Subgraph<?> subgraph = graph.addSubgraph(names[0]);
+                for (int i = 1; i < names.length - 1; i++) {
+                    subgraph = subgraph.addSubgraph(names[i]);
+                }
+                subgraph.addAttributeNodes(names[names.length - 1]);
+            }
+            query.setHint(LOAD_GRAPH, graph);
+        }
+    }
+
+    static Fetch<?, ?> findFetch(FetchParent<?, ?> parent, String attribute) {
+        for (Fetch<?, ?> fetch : parent.getFetches()) {
+            if (fetch.getAttribute().getName().equals(attribute)) {
+                return fetch;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCountQuery(AbstractQuery<?> query) {
+        return Long.class == query.getResultType() || long.class == query.getResultType();
+    }
+
+    private static final class FetchPath {
+        private final String[] path;
+        private final JoinType joinType;
+
+        private FetchPath(String[] path, JoinType joinType) {
+            this.path = path;
+            this.joinType = joinType;
+        }
+    }
+}
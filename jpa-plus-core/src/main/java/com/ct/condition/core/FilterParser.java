@@ -0,0 +1,518 @@
+package com.ct.condition.core;
+
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.metamodel.Metamodel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 将URL参数中的过滤表达式解析为条件，线程安全，可以保存为常量使用，如：
+ * FilterParser&lt;User&gt; parser = Conditions.filter(User.class).fields("username:eq,rl", "id", "realname").maxPredicates(10).maxInSize(100);
+ * List&lt;User&gt; users = parser.parse("username=rl:li;id=in:1,2,3|realname=null", em.getMetamodel()).findAll(em);
+ * 等价于 (username like 'li%' and id in (1, 2, 3)) or realname is null。
+ * 语法：条件之间用;表示且，用|表示或，;优先于|；每个条件为 属性=[操作符:]值，省略操作符时为eq，
+ * 值为null和notnull时表示为空和不为空，如需匹配字符串"null"使用eq:null；
+ * in、nin使用,分隔多个值，bt使用,分隔上下界，上下界可以为空；值中的;|,和\需要用\转义；值为空时忽略该条件。
+ * 操作符：eq、ne、gt、ge、lt、le、like、ll（左模糊）、rl（右模糊）、ilike、ill、irl（忽略大小写）、match、in、nin、bt。
+ * 必须通过{@link #fields(String...)}声明允许过滤的属性及其操作符，没有默认值，未声明时解析抛出异常；
+ * 模糊查询和match只允许用于字符串属性，比较只允许用于可比较的类型（基本类型按包装类型判断）；值在构造条件时转换为属性的类型。
+ * 去掉值之后的表达式结构（属性、操作符和分隔符）编译为模板，编译时校验属性和操作符，
+ * 模板按最近最少使用淘汰，相同结构的表达式不再校验
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class FilterParser<T> {
+
+    private static final String[] OPERATOR_NAMES = {"eq", "ne", "gt", "ge", "lt", "le", "like", "ll", "rl",
+            "ilike", "ill", "irl", "match", "in", "nin", "bt"};
+    private static final Handler[] OPERATOR_HANDLERS = {Handler.EQUAL, Handler.NOT_EQUAL, Handler.GT, Handler.GE,
+            Handler.LT, Handler.LE, Handler.ALL_LIKE, Handler.LEFT_LIKE, Handler.RIGHT_LIKE, Handler.ALL_LIKE_IGNORE_CASE,
+            Handler.LEFT_LIKE_IGNORE_CASE, Handler.RIGHT_LIKE_IGNORE_CASE, Handler.MATCH, Handler.IN, Handler.NOT_IN,
+            Handler.BETWEEN};
+    private static final String NULL = "null";
+    private static final String NOT_NULL = "notnull";
+    /**
+     * 未声明操作符的属性允许的操作符，不包括模糊查询和match
+     */
+    private static final Set<Handler> DEFAULT_HANDLERS = Collections.unmodifiableSet(EnumSet.of(Handler.EQUAL,
+            Handler.NOT_EQUAL, Handler.GT, Handler.GE, Handler.LT, Handler.LE, Handler.IN, Handler.NOT_IN,
+            Handler.BETWEEN, Handler.IS_NULL, Handler.IS_NOT_NULL));
+    private static final char AND = ';';
+    private static final char OR = '|';
+    private static final char SEPARATOR = ',';
+    private static final char ESCAPE = '\\';
+
+    private final Class<T> entityClass;
+    private volatile Map<String, Set<Handler>> fields;
+    private volatile int maxPredicates = 20;
+    private volatile int maxInSize = 500;
+    private int cacheSize = 256;
+    private final Map<String, Template> templates = new LinkedHashMap<String, Template>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    FilterParser(Class<T> entityClass) {
+        if (entityClass == null) {
+            throw JpaPlusException.getException("Entity class cannot be null");
+        }
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * 允许过滤的属性及其操作符，必须调用，不在其中的属性和操作符不能过滤；
+     * 每项为 属性[:操作符,操作符]，如fields("username:eq,rl", "id")，属性可以是a.b形式的关联路径，
+     * 操作符包括null和notnull；省略操作符时允许除模糊查询和match之外的所有操作符
+     */
+    public FilterParser<T> fields(String... fields) {
+        if (fields == null || fields.length == 0) {
+            throw JpaPlusException.getException("Fields cannot be empty");
+        }
+        Map<String, Set<Handler>> allowed = new HashMap<>();
+        for (String field : fields) {
+            int colon = field == null ? -1 : field.indexOf(':');
+            String name = colon < 0 ? field : field.substring(0, colon);
+            if (StringUtil.isEmpty(name)) {
+                throw JpaPlusException.getException("Field name cannot be empty");
+            }
+            Set<Handler> handlers = colon < 0 ? DEFAULT_HANDLERS : handlers(field.substring(colon + 1));
+            allowed.merge(name, handlers, (a, b) -> {
+                Set<Handler> merged = EnumSet.copyOf(a);
+                merged.addAll(b);
+                return merged;
+            });
+        }
+        this.fields = Collections.unmodifiableMap(allowed);
+        clear();
+        return this;
+    }
+
+    private static Set<Handler> handlers(String operators) {
+        Set<Handler> handlers = EnumSet.noneOf(Handler.class);
+        for (String operator : operators.split(String.valueOf(SEPARATOR))) {
+            handlers.add(handler(operator.trim()));
+        }
+        return handlers;
+    }
+
+    private static Handler handler(String operator) {
+        for (int i = 0; i < OPERATOR_NAMES.length; i++) {
+            if (OPERATOR_NAMES[i].equals(operator)) {
+                return OPERATOR_HANDLERS[i];
+            }
+        }
+        if (NULL.equals(operator)) {
+            return Handler.IS_NULL;
+        }
+        if (NOT_NULL.equals(operator)) {
+            return Handler.IS_NOT_NULL;
+        }
+        throw JpaPlusException.getException("Unknown filter operator " + operator);
+    }
+
+    /**
+     * 一个表达式中最多的条件数量，默认为20
+     */
+    public FilterParser<T> maxPredicates(int maxPredicates) {
+        if (maxPredicates <= 0) {
+            throw JpaPlusException.getException("Max predicates must be positive");
+        }
+        this.maxPredicates = maxPredicates;
+        return this;
+    }
+
+    /**
+     * in和nin中最多的值数量，默认为500
+     */
+    public FilterParser<T> maxInSize(int maxInSize) {
+        if (maxInSize <= 0) {
+            throw JpaPlusException.getException("Max in size must be positive");
+        }
+        this.maxInSize = maxInSize;
+        return this;
+    }
+
+    /**
+     * 最多缓存的模板数量，默认为256
+     */
+    public FilterParser<T> cacheSize(int cacheSize) {
+        if (cacheSize <= 0) {
+            throw JpaPlusException.getException("Cache size must be positive");
+        }
+        synchronized (templates) {
+            this.cacheSize = cacheSize;
+            templates.clear();
+        }
+        return this;
+    }
+
+    public void clear() {
+        synchronized (templates) {
+            templates.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (templates) {
+            return templates.size();
+        }
+    }
+
+    /**
+     * 解析过滤表达式，表达式为空时返回没有条件的实例；
+     * 过滤条件作为一个分组加入返回的条件，之后追加的条件与其构成且的关系
+     * @param expression 已经过URL解码的表达式
+     * @param metamodel EntityManager#getMetamodel()
+     * @return 绑定元模型的条件
+     */
+    public SimpleCondition<T> parse(String expression, Metamodel metamodel) {
+        if (fields == null) {
+            throw JpaPlusException.getException("Filterable fields are not declared, call fields(...) first");
+        }
+        SimpleCondition<T> condition = Conditions.use(entityClass, metamodel);
+        if (StringUtil.isEmpty(expression)) {
+            return condition;
+        }
+        Scanner scanner = new Scanner(expression, maxPredicates, maxInSize);
+        scanner.scan();
+        String key = scanner.skeleton.toString();
+        Template template;
+        synchronized (templates) {
+            template = templates.get(key);
+        }
+        if (template == null || template.metamodel != metamodel) {
+            template = compile(scanner, metamodel);
+            synchronized (templates) {
+                templates.put(key, template);
+            }
+        }
+        Template compiled = template;
+        List<Object> values = scanner.values;
+        return condition.and(c -> compiled.apply(c, values));
+    }
+
+    private Template compile(Scanner scanner, Metamodel metamodel) {
+        EntityAttributes attributes = EntityAttributes.of(metamodel, entityClass);
+        Map<String, Set<Handler>> allowed = fields;
+        for (int i = 0; i < scanner.names.size(); i++) {
+            String name = scanner.names.get(i);
+            Handler handler = scanner.handlers.get(i);
+            Set<Handler> handlers = allowed.get(name);
+            if (handlers == null) {
+                throw JpaPlusException.getException("Attribute " + name + " cannot be filtered");
+            }
+            if (!handlers.contains(handler)) {
+                throw JpaPlusException.getException("Operator " + operatorName(handler) + " is not allowed for attribute " + name);
+            }
+            Class<?> javaType = ClassUtils.resolvePrimitiveIfNecessary(attributes.get(name).getJavaType());
+            if ((SpecificationFactory.isLike(handler) || handler == Handler.MATCH) && javaType != String.class
+                    || isComparison(handler) && !Comparable.class.isAssignableFrom(javaType)) {
+                throw JpaPlusException.getException("Operator " + operatorName(handler) + " is not supported by attribute "
+                        + name + " of type " + javaType.getSimpleName());
+            }
+        }
+        return new Template(metamodel, scanner.names.toArray(new String[0]), scanner.handlers.toArray(new Handler[0]),
+                scanner.groupStarts.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static boolean isComparison(Handler handler) {
+        return handler == Handler.GT || handler == Handler.GE || handler == Handler.LT || handler == Handler.LE
+                || handler == Handler.BETWEEN;
+    }
+
+    private static String operatorName(Handler handler) {
+        for (int i = 0; i < OPERATOR_HANDLERS.length; i++) {
+            if (OPERATOR_HANDLERS[i] == handler) {
+                return OPERATOR_NAMES[i];
+            }
+        }
+        return handler == Handler.IS_NULL ? NULL : NOT_NULL;
+    }
+
+    /**
+     * 去掉值之后的表达式，属性和操作符已经校验
+     */
+    private static final class Template {
+
+        private final Metamodel metamodel;
+        private final String[] names;
+        private final Handler[] handlers;
+        /**
+         * 每个或分组第一个条件的下标
+         */
+        private final int[] groupStarts;
+
+        private Template(Metamodel metamodel, String[] names, Handler[] handlers, int[] groupStarts) {
+            this.metamodel = metamodel;
+            this.names = names;
+            this.handlers = handlers;
+            this.groupStarts = groupStarts;
+        }
+
+        private void apply(SimpleCondition<?> condition, List<Object> values) {
+            if (groupStarts.length == 1) {
+                apply(condition, values, 0, names.length);
+                return;
+            }
+            for (int g = 0; g < groupStarts.length; g++) {
+                int from = groupStarts[g];
+                int to = g + 1 < groupStarts.length ? groupStarts[g + 1] : names.length;
+                condition.or(c -> apply(c, values, from, to));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void apply(SimpleCondition<?> condition, List<Object> values, int from, int to) {
+            for (int i = from; i < to; i++) {
+                String name = names[i];
+                Object value = values.get(i);
+                switch (handlers[i]) {
+                    case EQUAL:
+                        condition.eq(name, (String) value);
+                        break;
+                    case NOT_EQUAL:
+                        condition.notEq(name, (String) value);
+                        break;
+                    case GT:
+                        condition.gt(name, (String) value);
+                        break;
+                    case GE:
+                        condition.ge(name, (String) value);
+                        break;
+                    case LT:
+                        condition.lt(name, (String) value);
+                        break;
+                    case LE:
+                        condition.le(name, (String) value);
+                        break;
+                    case ALL_LIKE:
+                        condition.allLike(name, (String) value);
+                        break;
+                    case LEFT_LIKE:
+                        condition.leftLike(name, (String) value);
+                        break;
+                    case RIGHT_LIKE:
+                        condition.rightLike(name, (String) value);
+                        break;
+                    case ALL_LIKE_IGNORE_CASE:
+                        condition.allLikeIgnoreCase(name, (String) value);
+                        break;
+                    case LEFT_LIKE_IGNORE_CASE:
+                        condition.leftLikeIgnoreCase(name, (String) value);
+                        break;
+                    case RIGHT_LIKE_IGNORE_CASE:
+                        condition.rightLikeIgnoreCase(name, (String) value);
+                        break;
+                    case MATCH:
+                        condition.match(name, (String) value);
+                        break;
+                    case IN:
+                        if (value != null) {
+                            condition.in(name, (List<String>) value);
+                        }
+                        break;
+                    case NOT_IN:
+                        if (value != null) {
+                            condition.notIn(name, (List<String>) value);
+                        }
+                        break;
+                    case BETWEEN: {
+                        List<String> bounds = (List<String>) value;
+                        condition.between(name, bounds.get(0), bounds.get(1));
+                        break;
+                    }
+                    case IS_NULL:
+                        condition.isNull(name);
+                        break;
+                    case IS_NOT_NULL:
+                        condition.isNotNull(name);
+                        break;
+                    default:
+                        throw JpaPlusException.getException("Unsupported operator " + handlers[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 一次扫描表达式，得到去掉值之后的结构和各条件的值；值为空字符串时为null，in和bt的值为列表
+     */
+    private static final class Scanner {
+
+        private final String expression;
+        private final int maxPredicates;
+        private final int maxInSize;
+        private final StringBuilder skeleton;
+        private final List<String> names = new ArrayList<>();
+        private final List<Handler> handlers = new ArrayList<>();
+        private final List<Integer> groupStarts = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+        private StringBuilder buffer;
+        private int pos;
+
+        private Scanner(String expression, int maxPredicates, int maxInSize) {
+            this.expression = expression;
+            this.maxPredicates = maxPredicates;
+            this.maxInSize = maxInSize;
+            this.skeleton = new StringBuilder(Math.min(expression.length(), 128));
+        }
+
+        private void scan() {
+            groupStarts.add(0);
+            while (true) {
+                term();
+                if (pos == expression.length()) {
+                    return;
+                }
+                char c = expression.charAt(pos++);
+                skeleton.append(c);
+                if (c == OR) {
+                    groupStarts.add(names.size());
+                }
+            }
+        }
+
+        private void term() {
+            if (names.size() == maxPredicates) {
+                throw JpaPlusException.getException("Filter contains more than " + maxPredicates + " predicates");
+            }
+            int start = pos;
+            while (pos < expression.length() && isNameChar(expression.charAt(pos))) {
+                pos++;
+            }
+            if (pos == start || pos == expression.length() || expression.charAt(pos) != '=') {
+                throw error("Expect attribute name followed by '='");
+            }
+            String name = expression.substring(start, pos);
+            skeleton.append(expression, start, ++pos);
+            Handler handler = operator();
+            int valueStart = pos;
+            Object value;
+            if (handler == Handler.IN || handler == Handler.NOT_IN || handler == Handler.BETWEEN) {
+                value = list(handler);
+            } else {
+                value = value();
+                if (handler == null) {
+                    handler = Handler.EQUAL;
+                    if (NULL.equals(value) && pos - valueStart == NULL.length()) {
+                        handler = Handler.IS_NULL;
+                        value = null;
+                    } else if (NOT_NULL.equals(value) && pos - valueStart == NOT_NULL.length()) {
+                        handler = Handler.IS_NOT_NULL;
+                        value = null;
+                    }
+                }
+            }
+            if (pos < expression.length() && expression.charAt(pos) != AND && expression.charAt(pos) != OR) {
+                throw error("Unexpected '" + expression.charAt(pos) + "'");
+            }
+            skeleton.append(operatorName(handler));
+            names.add(name);
+            handlers.add(handler);
+            values.add(value);
+        }
+
+        /**
+         * 读取操作符和其后的冒号，没有操作符时返回null，不移动位置
+         */
+        private Handler operator() {
+            int end = pos;
+            while (end < expression.length() && Character.isLetter(expression.charAt(end))) {
+                end++;
+            }
+            if (end == pos || end == expression.length() || expression.charAt(end) != ':') {
+                return null;
+            }
+            for (int i = 0; i < OPERATOR_NAMES.length; i++) {
+                String operator = OPERATOR_NAMES[i];
+                if (operator.length() == end - pos && expression.regionMatches(pos, operator, 0, operator.length())) {
+                    pos = end + 1;
+                    return OPERATOR_HANDLERS[i];
+                }
+            }
+            return null;
+        }
+
+        private List<String> list(Handler handler) {
+            List<String> list = new ArrayList<>(handler == Handler.BETWEEN ? 2 : 8);
+            boolean empty = true;
+            while (true) {
+                String value = value();
+                if (handler == Handler.BETWEEN) {
+                    list.add(value);
+                } else if (value != null) {
+                    if (list.size() == maxInSize) {
+                        throw JpaPlusException.getException("Filter contains more than " + maxInSize + " values in " + operatorName(handler));
+                    }
+                    list.add(value);
+                }
+                empty &= value == null;
+                if (pos == expression.length() || expression.charAt(pos) != SEPARATOR) {
+                    break;
+                }
+                pos++;
+            }
+            if (handler == Handler.BETWEEN && list.size() != 2) {
+                throw error("Expect lower and upper bounds separated by ','");
+            }
+            return empty && handler != Handler.BETWEEN ? null : list;
+        }
+
+        /**
+         * 读取一个值直到未转义的分隔符，没有转义字符时不复制
+         */
+        private String value() {
+            int start = pos;
+            boolean escaped = false;
+            while (pos < expression.length()) {
+                char c = expression.charAt(pos);
+                if (c == ESCAPE) {
+                    if (!escaped) {
+                        escaped = true;
+                        if (buffer == null) {
+                            buffer = new StringBuilder();
+                        }
+                        buffer.setLength(0);
+                        buffer.append(expression, start, pos);
+                    }
+                    if (++pos == expression.length()) {
+                        throw error("Unterminated escape");
+                    }
+                    buffer.append(expression.charAt(pos++));
+                    continue;
+                }
+                if (c == AND || c == OR || c == SEPARATOR) {
+                    break;
+                }
+                if (escaped) {
+                    buffer.append(c);
+                }
+                pos++;
+            }
+            if (escaped) {
+                return buffer.length() == 0 ? null : buffer.toString();
+            }
+            return pos == start ? null : expression.substring(start, pos);
+        }
+
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.';
+        }
+
+        private JpaPlusException error(String message) {
+            return JpaPlusException.getException(message + " at position " + pos + " of filter");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ct.condition.core;
+
+import java.util.List;
+
+/**
+ * 条件指纹的计算，64位，结果只依赖于字段名、枚举名和值的hashCode，在不同JVM之间稳定
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class Fingerprint {
+
+    static final long SEED = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private Fingerprint() {
+    }
+
+    static long mix(long hash, long value) {
+        return (hash ^ fmix(value)) * PRIME;
+    }
+
+    /**
+     * 实体和条件树组合后的指纹
+     */
+    static long of(Class<?> entityClass, long nodeHash) {
+        long hash = mix(SEED, entityClass == null ? 0 : entityClass.getName().hashCode());
+        return fmix(mix(hash, nodeHash));
+    }
+
+    /**
+     * 值的hash，参数占位符按名称计算，in的值按集合计算
+     */
+    static long value(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Param) {
+            return String.valueOf(((Param) value).getName()).hashCode();
+        }
+        if (value instanceof InValues) {
+            long hash = SEED;
+            List<?> values = ((InValues) value).getValues();
+            for (Object item : values) {
+                hash = mix(hash, value(item));
+            }
+            return hash;
+        }
+        return value.hashCode();
+    }
+
+    /**
+     * in集合大小的分桶，按2的幂向上取整，参数占位符为-1
+     */
+    static int bucket(InValues in) {
+        if (in.getParam() != null) {
+            return -1;
+        }
+        int size = in.getValues().size();
+        return size <= 1 ? size : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
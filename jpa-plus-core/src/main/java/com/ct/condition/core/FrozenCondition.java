@@ -0,0 +1,129 @@
+package com.ct.condition.core;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 不可变的条件，由{@link AbstractCondition#freeze()}创建，线程安全，可以保存为常量在多个线程中共享，如：
+ * static final FrozenCondition&lt;User&gt; ACTIVE = Conditions.lambdaUse(User.class).eq(User::getDeleted, false).freeze();
+ * 冻结时条件树已完成规范化和{@link ConditionOptimizer}的改写，属性路径已拆分、值已去空和补齐；
+ * 组合到其他条件中时直接引用改写前的条件树，不会复制。
+ * 条件值本身（如Date）不会被复制，冻结后不应再修改
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class FrozenCondition<T> {
+
+    private final Class<T> entityClass;
+    private final ConditionNode node;
+    private final FetchPlan fetchPlan;
+    private volatile PreparedCondition<T> prepared;
+
+    FrozenCondition(Class<T> entityClass, ConditionNode node, FetchPlan fetchPlan) {
+        this.entityClass = entityClass;
+        this.node = OptimizedNode.of(node);
+        this.fetchPlan = fetchPlan;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 结构指纹，见{@link AbstractCondition#shapeFingerprint()}
+     */
+    public long shapeFingerprint() {
+        return Fingerprint.of(entityClass, node.shapeHash());
+    }
+
+    /**
+     * 包括值的指纹，见{@link AbstractCondition#valueFingerprint()}
+     */
+    public long valueFingerprint() {
+        return Fingerprint.of(entityClass, node.valueHash());
+    }
+
+    /**
+     * 与另一个冻结条件组成且的关系，返回新的冻结条件
+     * @param other
+     * @return FrozenCondition
+     */
+    public FrozenCondition<T> and(FrozenCondition<T> other) {
+        return combine(Predicate.BooleanOperator.AND, other);
+    }
+
+    /**
+     * 与另一个冻结条件组成或的关系，返回新的冻结条件
+     * @param other
+     * @return FrozenCondition
+     */
+    public FrozenCondition<T> or(FrozenCondition<T> other) {
+        return combine(Predicate.BooleanOperator.OR, other);
+    }
+
+    private FrozenCondition<T> combine(Predicate.BooleanOperator operator, FrozenCondition<T> other) {
+        Class<T> clzz = entityClass != null ? entityClass : other.entityClass;
+        FetchPlan plan = fetchPlan.isEmpty() ? other.fetchPlan : fetchPlan;
+        return new FrozenCondition<>(clzz, new OperatorNode(operator, new ConditionNode[]{node, other.node}), plan);
+    }
+
+    public Specification<T> toSpec() {
+        ConditionNode root = node;
+        FetchPlan plan = fetchPlan;
+        return (r, query, criteriaBuilder) -> {
+            plan.applyFetches(r, query);
+            return ConditionListeners.toPredicate(root, new PredicateContext(r, criteriaBuilder));
+        };
+    }
+
+    /**
+     * 预编译条件，只创建一次，查询结构按EntityManagerFactory缓存
+     * @return PreparedCondition
+     */
+    public PreparedCondition<T> prepare() {
+        PreparedCondition<T> result = prepared;
+        if (result == null) {
+            result = new PreparedCondition<>(requireEntityClass(), node);
+            prepared = result;
+        }
+        return result;
+    }
+
+    public List<T> findAll(EntityManager em) {
+        Class<T> clzz = requireEntityClass();
+        return ConditionListeners.execute(clzz, node, "findAll",
+                () -> QueryFactory.createQuery(em, clzz, node, fetchPlan).getResultList(), ArrayList::new, List::size);
+    }
+
+    public long count(EntityManager em) {
+        Class<T> clzz = requireEntityClass();
+        return ConditionListeners.execute(clzz, node, "count",
+                () -> QueryFactory.createCountQuery(em, clzz, node).getSingleResult(), () -> 0L, null);
+    }
+
+    public boolean exists(EntityManager em) {
+        Class<T> clzz = requireEntityClass();
+        return ConditionListeners.execute(clzz, node, "exists",
+                () -> !QueryFactory.createExistsQuery(em, clzz, node).getResultList().isEmpty(), () -> false, null);
+    }
+
+    ConditionNode getNode() {
+        return node;
+    }
+
+    FetchPlan getFetchPlan() {
+        return fetchPlan;
+    }
+
+    private Class<T> requireEntityClass() {
+        if (entityClass == null) {
+            throw JpaPlusException.getException("Entity class is required, create condition by Conditions.use(Class)");
+        }
+        return entityClass;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ct.condition.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明实体属性上match条件使用的全文检索函数，如：
+ * &#64;FullText(value = "match_against", score = true)
+ * private String title;
+ * 函数需要在数据库方言中注册或者是数据库中已存在的函数，见{@link TextSearch}
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+@Documented
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FullText {
+
+    /**
+     * 全文检索函数名，函数签名为function(column, query)
+     */
+    String value();
+
+    /**
+     * 函数返回相关度（如MySQL的match ... against）时为true，条件为 function(column, query) &gt; 0；
+     * 返回布尔值时为false
+     */
+    boolean score() default false;
+}
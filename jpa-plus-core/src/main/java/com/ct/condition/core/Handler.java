@@ -38,6 +38,22 @@ public enum Handler {
          * 右匹配
          */
         RIGHT_LIKE,
+        /**
+         * 忽略大小写的全匹配
+         */
+        ALL_LIKE_IGNORE_CASE,
+        /**
+         * 忽略大小写的左匹配
+         */
+        LEFT_LIKE_IGNORE_CASE,
+        /**
+         * 忽略大小写的右匹配
+         */
+        RIGHT_LIKE_IGNORE_CASE,
+        /**
+         * 全文检索，见{@link TextSearch}
+         */
+        MATCH,
         /**
          * 在...之内
          */
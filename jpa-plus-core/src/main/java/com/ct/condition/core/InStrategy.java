@@ -0,0 +1,107 @@
+package com.ct.condition.core;
+
+/**
+ * in/notIn查询的处理策略，不可变对象，修改配置返回新的实例
+ * <ul>
+ *     <li>padding：默认关闭。集合长度补齐到2的幂（超过chunkSize时补齐到chunkSize的整数倍），重复最后一个元素，
+ *     不同长度的集合生成相同的SQL，减少查询计划数量；由本组件执行查询时集合作为参数绑定，
+ *     通过toSpec()交给Spring Data执行时，Hibernate默认将数值直接写入SQL，补齐只对字符串等绑定为参数的值有效</li>
+ *     <li>chunkSize：超过该长度时拆分为多个in并用or连接（notIn为and），避免超过数据库参数个数限制，小于等于0时不拆分</li>
+ *     <li>arrayFunction/arrayThreshold：由本组件执行查询（如预编译条件）时，长度达到阈值的集合作为一个数组参数绑定，
+ *     通过数组函数判断，如H2的array_contains，整个集合只占用一个参数</li>
+ * </ul>
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class InStrategy {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static volatile InStrategy defaultStrategy = new InStrategy(false, DEFAULT_CHUNK_SIZE, null, Integer.MAX_VALUE);
+
+    private final boolean padding;
+    private final int chunkSize;
+    private final String arrayFunction;
+    private final int arrayThreshold;
+
+    private InStrategy(boolean padding, int chunkSize, String arrayFunction, int arrayThreshold) {
+        this.padding = padding;
+        this.chunkSize = chunkSize;
+        this.arrayFunction = arrayFunction;
+        this.arrayThreshold = arrayThreshold;
+    }
+
+    /**
+     * 全局默认策略，新建的condition使用该策略
+     */
+    public static InStrategy getDefault() {
+        return defaultStrategy;
+    }
+
+    public static void setDefault(InStrategy strategy) {
+        if (strategy == null) {
+            throw JpaPlusException.getException("InStrategy cannot be null");
+        }
+        defaultStrategy = strategy;
+    }
+
+    public InStrategy padding(boolean padding) {
+        return new InStrategy(padding, chunkSize, arrayFunction, arrayThreshold);
+    }
+
+    public InStrategy chunkSize(int chunkSize) {
+        return new InStrategy(padding, chunkSize, arrayFunction, arrayThreshold);
+    }
+
+    /**
+     * 开启数组参数绑定
+     * @param function 数组函数名，函数签名为function(array, column)，如H2的array_contains
+     * @param threshold 集合长度达到该值时使用数组参数
+     * @return InStrategy
+     */
+    public InStrategy arrayBinding(String function, int threshold) {
+        if (StringUtil.isEmpty(function)) {
+            throw JpaPlusException.getException("Array function cannot be empty");
+        }
+        return new InStrategy(padding, chunkSize, function, threshold);
+    }
+
+    public InStrategy noArrayBinding() {
+        return new InStrategy(padding, chunkSize, null, Integer.MAX_VALUE);
+    }
+
+    public boolean isPadding() {
+        return padding;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public String getArrayFunction() {
+        return arrayFunction;
+    }
+
+    public int getArrayThreshold() {
+        return arrayThreshold;
+    }
+
+    boolean useArray(int size) {
+        return arrayFunction != null && size >= arrayThreshold;
+    }
+
+    /**
+     * 补齐后的长度
+     */
+    int paddedSize(int size) {
+        if (!padding || size <= 1) {
+            return size;
+        }
+        if (chunkSize > 0 && size > chunkSize) {
+            return (size + chunkSize - 1) / chunkSize * chunkSize;
+        }
+        int bucket = Integer.highestOneBit(size - 1) << 1;
+        return chunkSize > 0 ? Math.min(bucket, chunkSize) : bucket;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ct.condition.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * in/notIn条件的值，构造条件时完成去空、去重和补齐，执行时直接使用
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class InValues {
+
+    private final List<?> values;
+    private final InStrategy strategy;
+
+    private InValues(List<?> values, InStrategy strategy) {
+        this.values = values;
+        this.strategy = strategy;
+    }
+
+    static InValues of(Collection<?> collection, InStrategy strategy) {
+        if (collection.size() == 1 && collection.iterator().next() instanceof Param) {
+            return new InValues(Collections.singletonList(collection.iterator().next()), strategy);
+        }
+        LinkedHashSet<Object> distinct = new LinkedHashSet<>(collection);
+        distinct.remove(null);
+        List<Object> values = new ArrayList<>(strategy.paddedSize(distinct.size()));
+        values.addAll(distinct);
+        Object last = values.isEmpty() ? null : values.get(values.size() - 1);
+        for (int i = values.size(), size = strategy.paddedSize(values.size()); i < size; i++) {
+            values.add(last);
+        }
+        return new InValues(Collections.unmodifiableList(values), strategy);
+    }
+
+    List<?> getValues() {
+        return values;
+    }
+
+    InStrategy getStrategy() {
+        return strategy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof InValues && values.equals(((InValues) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    /**
+     * 值为参数占位符时返回该占位符
+     */
+    Param getParam() {
+        return values.size() == 1 && values.get(0) instanceof Param ? (Param) values.get(0) : null;
+    }
+}
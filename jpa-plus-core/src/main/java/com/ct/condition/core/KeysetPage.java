@@ -0,0 +1,35 @@
+package com.ct.condition.core;
+
+import java.util.List;
+
+/**
+ * 键集分页的一页数据
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> content;
+    private final String nextToken;
+
+    KeysetPage(List<T> content, String nextToken) {
+        this.content = content;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * 下一页的游标，传给{@link AbstractCondition#after(String)}获取下一页，没有下一页时为null
+     */
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
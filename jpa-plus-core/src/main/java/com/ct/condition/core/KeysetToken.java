@@ -0,0 +1,169 @@
+package com.ct.condition.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * 键集分页游标的编解码，值按类型标记编码为字符串，不使用Java序列化，可以安全地接收客户端传回的游标
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class KeysetToken {
+
+    private KeysetToken() {
+    }
+
+    static String encode(Object[] values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(values.length);
+            for (Object value : values) {
+                if (value == null) {
+                    throw JpaPlusException.getException("Keyset value cannot be null");
+                }
+                out.writeByte(tag(value));
+                out.writeUTF(value instanceof Enum ? ((Enum<?>) value).getDeclaringClass().getName() + "#" + ((Enum<?>) value).name()
+                        : value instanceof Timestamp ? ((Timestamp) value).toInstant().toString()
+                        : value instanceof Date ? String.valueOf(((Date) value).getTime())
+                        : value.toString());
+            }
+        } catch (IOException e) {
+            throw JpaPlusException.getException("Cannot encode keyset token", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    static Object[] decode(String token) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            Object[] values = new Object[in.readUnsignedByte()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = parse((char) in.readByte(), in.readUTF());
+            }
+            return values;
+        } catch (IOException | RuntimeException e) {
+            throw JpaPlusException.getException("Invalid keyset token", e);
+        }
+    }
+
+    private static char tag(Object value) {
+        if (value instanceof String) {
+            return 'S';
+        } else if (value instanceof Long) {
+            return 'L';
+        } else if (value instanceof Integer) {
+            return 'I';
+        } else if (value instanceof Short) {
+            return 'H';
+        } else if (value instanceof Byte) {
+            return 'B';
+        } else if (value instanceof Double) {
+            return 'D';
+        } else if (value instanceof Float) {
+            return 'F';
+        } else if (value instanceof BigDecimal) {
+            return 'N';
+        } else if (value instanceof BigInteger) {
+            return 'G';
+        } else if (value instanceof Boolean) {
+            return 'Z';
+        } else if (value instanceof Character) {
+            return 'C';
+        } else if (value instanceof UUID) {
+            return 'U';
+        } else if (value instanceof LocalDate) {
+            return 'd';
+        } else if (value instanceof LocalDateTime) {
+            return 't';
+        } else if (value instanceof LocalTime) {
+            return 'l';
+        } else if (value instanceof OffsetDateTime) {
+            return 'o';
+        } else if (value instanceof Instant) {
+            return 'i';
+        } else if (value instanceof Timestamp) {
+            return 'T';
+        } else if (value instanceof Date) {
+            return 'M';
+        } else if (value instanceof Enum) {
+            return 'E';
+        }
+        throw JpaPlusException.getException("Unsupported keyset value type " + value.getClass().getName());
+    }
+
+    private static Object parse(char tag, String s) {
+        switch (tag) {
+            case 'S':
+                return s;
+            case 'L':
+                return Long.valueOf(s);
+            case 'I':
+                return Integer.valueOf(s);
+            case 'H':
+                return Short.valueOf(s);
+            case 'B':
+                return Byte.valueOf(s);
+            case 'D':
+                return Double.valueOf(s);
+            case 'F':
+                return Float.valueOf(s);
+            case 'N':
+                return new BigDecimal(s);
+            case 'G':
+                return new BigInteger(s);
+            case 'Z':
+                return Boolean.valueOf(s);
+            case 'C':
+                return s.charAt(0);
+            case 'U':
+                return UUID.fromString(s);
+            case 'd':
+                return LocalDate.parse(s);
+            case 't':
+                return LocalDateTime.parse(s);
+            case 'l':
+                return LocalTime.parse(s);
+            case 'o':
+                return OffsetDateTime.parse(s);
+            case 'i':
+                return Instant.parse(s);
+            case 'T':
+                return Timestamp.from(Instant.parse(s));
+            case 'M':
+                return new Date(Long.parseLong(s));
+            case 'E':
+                return parseEnum(s);
+            default:
+                throw JpaPlusException.getException("Unknown keyset value type " + tag);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parseEnum(String s) {
+        int index = s.indexOf('#');
+        try {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            Class<?> type = Class.forName(s.substring(0, index), false, loader != null ? loader : KeysetToken.class.getClassLoader());
+            if (!type.isEnum()) {
+                throw JpaPlusException.getException("Not an enum type " + type.getName());
+            }
+            return Enum.valueOf((Class) type, s.substring(index + 1));
+        } catch (ClassNotFoundException e) {
+            throw JpaPlusException.getException("Unknown enum type", e);
+        }
+    }
+}
@@ -13,18 +13,11 @@ public interface LambdaColumnConverter<T> {
     String IS = "is";
 
     /**
-     * 将函数转为字段名
+     * 将函数转为字段名，解析结果按lambda类缓存
      * @param fun
      * @return
      */
     default String functionToColumnName(SFunction<T, ?> fun){
-        String methodName = LambdaUtils.extractLambdaFunctionName(fun);
-        if(methodName.startsWith(GET)){
-            return StringUtil.lowerFirst(methodName.substring(3));
-        }else if(methodName.startsWith(IS)){
-            return StringUtil.lowerFirst(methodName.substring(2));
-        }else {
-            return methodName;
-        }
+        return LambdaUtils.extractColumnName(fun);
     }
 }
@@ -1,10 +1,10 @@
-
 package com.ct.condition.core;
 
 
 import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Lambda 解析工具类
@@ -14,6 +14,26 @@ import java.lang.reflect.Method;
  */
 public final class LambdaUtils {
 
+    private static final String GET = "get";
+    private static final String IS = "is";
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    /**
+     * 以lambda的合成类为key缓存解析结果，同一个方法引用只解析一次。
+     * ClassValue的值挂在Class上，类卸载时随之回收，holder里只保存字符串，不会反向持有类加载器
+     */
+    private static final ClassValue<Holder> CACHE = new ClassValue<Holder>() {
+        @Override
+        protected Holder computeValue(Class<?> type) {
+            return new Holder();
+        }
+    };
+
+    private LambdaUtils() {
+    }
+
     /**
      *
      * @param func 需要解析的 lambda 对象
@@ -37,8 +57,69 @@ public final class LambdaUtils {
      * @return 返回lambda函数方法名
      */
     public static <T> String extractLambdaFunctionName(SFunction<T, ?> func) {
-        SerializedLambda serializedLambda = extract(func);
-        return serializedLambda.getImplMethodName();
+        return resolve(func).methodName;
+    }
+
+    /**
+     * 将lambda函数解析为字段名，去掉get/is前缀并将首字母转为小写
+     * @param func 需要解析的 lambda 对象
+     * @param <T>  类型，被调用的 Function 对象的目标类型
+     * @return 字段名
+     */
+    public static <T> String extractColumnName(SFunction<T, ?> func) {
+        return resolve(func).columnName;
+    }
+
+    /**
+     * 缓存命中次数
+     */
+    public static long cacheHitCount() {
+        return HITS.sum();
+    }
+
+    /**
+     * 缓存未命中次数，即实际反射解析的次数
+     */
+    public static long cacheMissCount() {
+        return MISSES.sum();
+    }
+
+    private static <T> Resolved resolve(SFunction<T, ?> func) {
+        Holder holder = CACHE.get(func.getClass());
+        Resolved resolved = holder.resolved;
+        if (resolved != null) {
+            HITS.increment();
+            return resolved;
+        }
+        MISSES.increment();
+        String methodName = extract(func).getImplMethodName();
+        resolved = new Resolved(methodName, methodToColumnName(methodName));
+        holder.resolved = resolved;
+        return resolved;
+    }
+
+    private static String methodToColumnName(String methodName) {
+        if(methodName.startsWith(GET)){
+            return StringUtil.lowerFirst(methodName.substring(3));
+        }else if(methodName.startsWith(IS)){
+            return StringUtil.lowerFirst(methodName.substring(2));
+        }else {
+            return methodName;
+        }
+    }
+
+    private static final class Holder {
+        private volatile Resolved resolved;
+    }
+
+    private static final class Resolved {
+        private final String methodName;
+        private final String columnName;
+
+        private Resolved(String methodName, String columnName) {
+            this.methodName = methodName;
+            this.columnName = columnName;
+        }
     }
 
 }
@@ -0,0 +1,64 @@
+package com.ct.condition.core;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将事件记录到Micrometer，标签为实体（entity）和条件结构（shape），执行指标另有执行方法（terminal）和结果（outcome，success或error）；
+ * 需要自行引入micrometer-core，如：
+ * ConditionListeners.register(new MicrometerConditionListener(meterRegistry));
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public class MicrometerConditionListener implements ConditionListener {
+
+    private final MeterRegistry registry;
+
+    public MicrometerConditionListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onBuild(ConditionEvent event) {
+        Timer.builder("jpa.plus.condition.build")
+                .tags("entity", event.getEntityClass().getSimpleName(), "shape", event.getShapeId())
+                .register(registry)
+                .record(event.getNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("jpa.plus.condition.predicates")
+                .tags("entity", event.getEntityClass().getSimpleName(), "shape", event.getShapeId())
+                .register(registry)
+                .record(event.getPredicateCount());
+        DistributionSummary.builder("jpa.plus.condition.depth")
+                .tags("entity", event.getEntityClass().getSimpleName(), "shape", event.getShapeId())
+                .register(registry)
+                .record(event.getDepth());
+    }
+
+    @Override
+    public void onTranslate(ConditionEvent event) {
+        Timer.builder("jpa.plus.condition.translate")
+                .tags("entity", event.getEntityClass().getSimpleName(), "shape", event.getShapeId())
+                .register(registry)
+                .record(event.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onExecute(ConditionEvent event) {
+        Timer.builder("jpa.plus.query.execution")
+                .tags("entity", event.getEntityClass().getSimpleName(), "shape", event.getShapeId(),
+                        "terminal", event.getTerminal(), "outcome", event.isFailed() ? "error" : "success")
+                .register(registry)
+                .record(event.getNanos(), TimeUnit.NANOSECONDS);
+        if (event.getRows() >= 0) {
+            DistributionSummary.builder("jpa.plus.query.rows")
+                    .tags("entity", event.getEntityClass().getSimpleName(), "shape", event.getShapeId(),
+                            "terminal", event.getTerminal())
+                    .register(registry)
+                    .record(event.getRows());
+        }
+    }
+}
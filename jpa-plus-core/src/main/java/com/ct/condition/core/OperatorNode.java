@@ -0,0 +1,139 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * n元操作符节点，子节点之间为同一种与/或关系，转换时生成一个扁平的cb.and(...)/cb.or(...)
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class OperatorNode implements ConditionNode {
+
+    static final ConditionNode[] EMPTY = new ConditionNode[0];
+
+    private final Predicate.BooleanOperator operator;
+    private final ConditionNode[] children;
+    private final long shapeHash;
+    private final long valueHash;
+
+    OperatorNode(Predicate.BooleanOperator operator, ConditionNode[] children) {
+        this.operator = operator;
+        this.children = children;
+        if (children.length == 1) {
+            // 只有一个子节点时转换结果与子节点相同
+            this.shapeHash = children[0].shapeHash();
+            this.valueHash = children[0].valueHash();
+            return;
+        }
+        long shape = Fingerprint.mix(Fingerprint.SEED, operator.name().hashCode());
+        long value = shape;
+        for (ConditionNode child : children) {
+            shape = Fingerprint.mix(shape, child.shapeHash());
+            value = Fingerprint.mix(value, child.valueHash());
+        }
+        this.shapeHash = shape;
+        this.valueHash = value;
+    }
+
+    Predicate.BooleanOperator getOperator() {
+        return operator;
+    }
+
+    ConditionNode[] getChildren() {
+        return children;
+    }
+
+    @Override
+    public long shapeHash() {
+        return shapeHash;
+    }
+
+    @Override
+    public long valueHash() {
+        return valueHash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OperatorNode)) {
+            return false;
+        }
+        OperatorNode that = (OperatorNode) o;
+        return valueHash == that.valueHash && operator == that.operator && Arrays.equals(children, that.children);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(valueHash);
+    }
+
+    /**
+     * 规范化条件树：展开与父节点操作符相同的子节点，去掉空的分组，只有一个子节点的分组替换为该子节点
+     * @param node
+     * @return 规范化后的节点，语义不变
+     */
+    static ConditionNode normalize(ConditionNode node) {
+        if (node instanceof OptimizedNode) {
+            // 组合进来的已构造条件按改写前的条件树展开
+            return ((OptimizedNode) node).getSource();
+        }
+        if (!(node instanceof OperatorNode)) {
+            return node;
+        }
+        OperatorNode operatorNode = (OperatorNode) node;
+        List<ConditionNode> flat = new ArrayList<>(operatorNode.children.length);
+        for (ConditionNode child : operatorNode.children) {
+            ConditionNode normalized = normalize(child);
+            if (normalized instanceof OperatorNode) {
+                OperatorNode group = (OperatorNode) normalized;
+                if (group.children.length == 0) {
+                    continue;
+                }
+                if (group.operator == operatorNode.operator) {
+                    for (ConditionNode grandChild : group.children) {
+                        flat.add(grandChild);
+                    }
+                    continue;
+                }
+            }
+            flat.add(normalized);
+        }
+        if (flat.size() == 1) {
+            return flat.get(0);
+        }
+        return new OperatorNode(operatorNode.operator, flat.toArray(EMPTY));
+    }
+
+    @Override
+    public Predicate toPredicate(PredicateContext context) {
+        Predicate[] predicates = new Predicate[children.length];
+        int size = 0;
+        for (ConditionNode child : children) {
+            Predicate predicate = child.toPredicate(context);
+            if (predicate != null) {
+                predicates[size++] = predicate;
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+        if (size == 1) {
+            return predicates[0];
+        }
+        if (size < predicates.length) {
+            Predicate[] compact = new Predicate[size];
+            System.arraycopy(predicates, 0, compact, 0, size);
+            predicates = compact;
+        }
+        CriteriaBuilder cb = context.getCriteriaBuilder();
+        return operator == Predicate.BooleanOperator.AND ? cb.and(predicates) : cb.or(predicates);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.Predicate;
+
+/**
+ * 条件构造完成后的根节点，同时持有规范化后、改写前的条件树和经过{@link ConditionOptimizer}改写的条件树：
+ * 转换为Predicate时使用改写后的条件树；指纹、相等判断和监听器事件只使用改写前的条件树，
+ * 结构相同的条件不会因为值不同改写出不同的结构（如矛盾的条件改写为恒假）而得到不同的结构指纹。
+ * 组合到其他条件树中时按改写前的条件树展开，整体重新改写
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class OptimizedNode implements ConditionNode {
+
+    private final ConditionNode source;
+    private final ConditionNode target;
+
+    private OptimizedNode(ConditionNode source, ConditionNode target) {
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * @param node 条件树，可以包含其他OptimizedNode
+     * @return 规范化并改写后的根节点
+     */
+    static OptimizedNode of(ConditionNode node) {
+        ConditionNode source = OperatorNode.normalize(node);
+        return new OptimizedNode(source, ConditionOptimizer.optimize(source));
+    }
+
+    /**
+     * 条件是否恒假，恒假的条件不访问数据库
+     */
+    static boolean isFalse(ConditionNode node) {
+        return node == ConstantNode.FALSE || node instanceof OptimizedNode && ((OptimizedNode) node).target == ConstantNode.FALSE;
+    }
+
+    /**
+     * 规范化后、改写前的条件树
+     */
+    ConditionNode getSource() {
+        return source;
+    }
+
+    /**
+     * 改写后的条件树
+     */
+    ConditionNode getTarget() {
+        return target;
+    }
+
+    @Override
+    public Predicate toPredicate(PredicateContext context) {
+        return target.toPredicate(context);
+    }
+
+    @Override
+    public long shapeHash() {
+        return source.shapeHash();
+    }
+
+    @Override
+    public long valueHash() {
+        return source.valueHash();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof OptimizedNode && source.equals(((OptimizedNode) o).source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+}
@@ -0,0 +1,441 @@
+package com.ct.condition.core;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.SingularAttribute;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 按键的范围分区并行查询，用于导出等需要读取大量数据的场景，如：
+ * Conditions.lambdaUse(User.class).eq(User::getDeleted, false).parallelScan(User::getId).partitions(8).stream(emf)
+ * 先查询满足条件的键的最小值和最大值，将其划分为多个互不相交的左闭右开区间，键可能为null时另加一个键为null的分区，
+ * 每个分区与原条件组成且的关系，在独立的EntityManager和事务中并发执行，返回的实体处于游离状态。
+ * 每个分区通过游标读取，每fetchSize条数据清空一次持久化上下文后交给调用方，每个分区最多缓冲两批数据，
+ * 调用方读取较慢时分区查询等待，内存占用不随结果数量增长；条件的timeout作为语句超时应用于最值查询和每个分区的查询。
+ * 键支持整数和时间类型（Date、Instant、LocalDate、LocalDateTime），各分区不在同一个事务中，
+ * 查询期间的修改可能只在部分分区中可见
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class ParallelScan<T> {
+
+    private static final long WAIT_MILLIS = 100;
+
+    private final Class<T> entityClass;
+    private final ConditionNode node;
+    private final FetchPlan fetchPlan;
+    private final String key;
+    private final String[] keyPath;
+    private final JoinType joinType;
+    private final Duration timeout;
+    private int partitions = Runtime.getRuntime().availableProcessors();
+    private int fetchSize = 500;
+    private boolean ordered;
+    private Executor executor;
+    private Object min;
+    private Object max;
+
+    ParallelScan(Class<T> entityClass, ConditionNode node, FetchPlan fetchPlan, String key, String[] keyPath,
+                 JoinType joinType, Duration timeout) {
+        this.entityClass = entityClass;
+        this.node = node;
+        this.fetchPlan = fetchPlan;
+        this.key = key;
+        this.keyPath = keyPath;
+        this.joinType = joinType;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 分区数量，默认为CPU核数；范围内的值少于分区数量时按实际的值划分
+     */
+    public ParallelScan<T> partitions(int partitions) {
+        if (partitions <= 0) {
+            throw JpaPlusException.getException("Partitions must be positive");
+        }
+        this.partitions = partitions;
+        return this;
+    }
+
+    /**
+     * 每个分区每次从游标读取并交给调用方的数据条数，默认为500
+     */
+    public ParallelScan<T> fetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw JpaPlusException.getException("Fetch size must be positive");
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * 是否按键升序返回，键为null的数据在最后；默认为false，按各分区读取到数据的顺序返回
+     */
+    public ParallelScan<T> ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * 执行分区查询的线程池，默认与{@link AbstractCondition#findAllAsync(EntityManagerFactory)}相同
+     */
+    public ParallelScan<T> executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 指定键的范围，不再查询最小值和最大值；范围之外的数据不会返回
+     */
+    public ParallelScan<T> bounds(Object min, Object max) {
+        if (min == null || max == null) {
+            throw JpaPlusException.getException("Bounds cannot be null");
+        }
+        this.min = min;
+        this.max = max;
+        return this;
+    }
+
+    public List<T> findAll(EntityManagerFactory emf) {
+        try (Stream<T> stream = stream(emf)) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 提交所有分区查询，按分区返回结果，使用完毕后需要关闭Stream，关闭时取消未完成的分区
+     * @param emf
+     * @return Stream
+     */
+    public Stream<T> stream(EntityManagerFactory emf) {
+        PartitionSpliterator spliterator = new PartitionSpliterator(partitionNodes(emf));
+        spliterator.start(emf);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::cancel);
+    }
+
+    /**
+     * 打开分区的游标，与{@link AbstractCondition#stream(EntityManager, int)}相同只读且不使用二级缓存
+     */
+    private ScrollableResults scroll(EntityManager em, ConditionNode partition) {
+        return ConditionListeners.execute(entityClass, partition, "parallelScan", () ->
+                AbstractCondition.withTimeout(QueryFactory.createQuery(em, entityClass, partition, fetchPlan, (query, root) -> {
+                    query.select(root);
+                    if (ordered) {
+                        query.orderBy(em.getCriteriaBuilder().asc(PathResolver.resolve(root, keyPath, joinType)));
+                    }
+                }), timeout)
+                        .unwrap(Query.class)
+                        .setFetchSize(fetchSize)
+                        .setReadOnly(true)
+                        .setCacheMode(CacheMode.IGNORE)
+                        .scroll(ScrollMode.FORWARD_ONLY), () -> null, null);
+    }
+
+    /**
+     * 每个分区的条件，按键的顺序排列，键为null的分区在最后
+     */
+    private List<ConditionNode> partitionNodes(EntityManagerFactory emf) {
+        if (OptimizedNode.isFalse(node)) {
+            return Collections.emptyList();
+        }
+        Object lower = min;
+        Object upper = max;
+        if (lower == null) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                Object[] range = AbstractCondition.withTimeout(
+                        QueryFactory.createRangeQuery(em, entityClass, node, keyPath, joinType), timeout).getSingleResult();
+                lower = range[0];
+                upper = range[1];
+            } finally {
+                em.close();
+            }
+        }
+        List<ConditionNode> nodes = new ArrayList<>(partitions + 1);
+        if (lower != null) {
+            List<Object> points = splitPoints(lower, upper);
+            for (int i = 0; i <= points.size(); i++) {
+                ConditionNode from = keyNode(Handler.GE, i == 0 ? lower : points.get(i - 1));
+                ConditionNode to = i == points.size() ? keyNode(Handler.LE, upper) : keyNode(Handler.LT, points.get(i));
+                nodes.add(new OperatorNode(Predicate.BooleanOperator.AND, new ConditionNode[]{node, from, to}));
+            }
+        }
+        if (min == null && nullable(emf)) {
+            nodes.add(new OperatorNode(Predicate.BooleanOperator.AND, new ConditionNode[]{node, keyNode(Handler.IS_NULL, null)}));
+        }
+        List<ConditionNode> optimized = new ArrayList<>(nodes.size());
+        for (ConditionNode partition : nodes) {
+            ConditionNode result = OptimizedNode.of(partition);
+            if (!OptimizedNode.isFalse(result)) {
+                optimized.add(result);
+            }
+        }
+        return optimized;
+    }
+
+    /**
+     * 键是否可能为null，实体自身的id和不可为空的属性不需要null分区
+     */
+    private boolean nullable(EntityManagerFactory emf) {
+        if (keyPath.length != 1) {
+            return true;
+        }
+        Attribute<?, ?> attribute = emf.getMetamodel().managedType(entityClass).getAttribute(keyPath[0]);
+        if (!(attribute instanceof SingularAttribute)) {
+            return true;
+        }
+        SingularAttribute<?, ?> singular = (SingularAttribute<?, ?>) attribute;
+        return !singular.isId() && singular.isOptional();
+    }
+
+    private ConditionNode keyNode(Handler handler, Object value) {
+        return new PredicateNode(handler, key, keyPath, joinType, value);
+    }
+
+    /**
+     * 最小值和最大值之间均匀分布的分割点，严格递增，都大于最小值且不大于最大值
+     */
+    private List<Object> splitPoints(Object lower, Object upper) {
+        BigInteger from = BigInteger.valueOf(toLong(lower));
+        BigInteger span = BigInteger.valueOf(toLong(upper)).subtract(from);
+        BigInteger count = BigInteger.valueOf(partitions);
+        List<Object> points = new ArrayList<>(partitions - 1);
+        long last = from.longValue();
+        for (int i = 1; i < partitions; i++) {
+            long point = from.add(span.multiply(BigInteger.valueOf(i)).divide(count)).longValue();
+            if (point > last) {
+                points.add(fromLong(point, lower.getClass()));
+                last = point;
+            }
+        }
+        return points;
+    }
+
+    private long toLong(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof Instant) {
+            return ((Instant) value).toEpochMilli();
+        }
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).toEpochDay();
+        }
+        throw JpaPlusException.getException("Unsupported key type " + value.getClass().getName() + " of " + key
+                + ", expect integer or temporal type");
+    }
+
+    private static Object fromLong(long value, Class<?> type) {
+        if (type == Long.class) {
+            return value;
+        }
+        if (type == Integer.class) {
+            return (int) value;
+        }
+        if (type == Short.class) {
+            return (short) value;
+        }
+        if (type == Byte.class) {
+            return (byte) value;
+        }
+        if (type == Instant.class) {
+            return Instant.ofEpochMilli(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(value), ZoneOffset.UTC);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.ofEpochDay(value);
+        }
+        // java.util.Date及java.sql.Date、Timestamp都有Date(long)构造函数
+        try {
+            return type.getConstructor(long.class).newInstance(value);
+        } catch (ReflectiveOperationException e) {
+            throw JpaPlusException.getException("Cannot create " + type.getName() + " from epoch millis", e);
+        }
+    }
+
+    /**
+     * 各分区在线程池中通过游标读取数据，按批放入有界队列：有序时每个分区一个队列，按分区顺序依次读取；
+     * 无序时所有分区共用一个队列，按放入的顺序读取。任一分区失败时取消其他分区
+     */
+    private final class PartitionSpliterator extends Spliterators.AbstractSpliterator<T> {
+
+        private final List<ConditionNode> nodes;
+        private final List<BlockingQueue<List<T>>> queues;
+        private final List<CompletableFuture<Void>> futures;
+        private volatile boolean cancelled;
+        private int next;
+        private Iterator<T> current = Collections.emptyIterator();
+
+        private PartitionSpliterator(List<ConditionNode> nodes) {
+            super(Long.MAX_VALUE, ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL);
+            this.nodes = nodes;
+            this.futures = new ArrayList<>(nodes.size());
+            int count = ordered ? nodes.size() : Math.min(nodes.size(), 1);
+            this.queues = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                queues.add(new ArrayBlockingQueue<>(ordered ? 1 : nodes.size()));
+            }
+        }
+
+        private void start(EntityManagerFactory emf) {
+            for (int i = 0; i < nodes.size(); i++) {
+                ConditionNode partition = nodes.get(i);
+                BlockingQueue<List<T>> queue = queues.get(ordered ? i : 0);
+                // 分区的耗时包含等待调用方读取的时间，只设置语句超时，不设置整体超时
+                futures.add(AsyncQuery.submit(emf, executor, null, em -> {
+                    scan(em, partition, queue);
+                    return null;
+                }));
+            }
+        }
+
+        private void scan(EntityManager em, ConditionNode partition, BlockingQueue<List<T>> queue) {
+            ScrollableResults results = scroll(em, partition);
+            try {
+                List<T> chunk = new ArrayList<>();
+                while (results.next()) {
+                    chunk.add(entityClass.cast(results.get(0)));
+                    if (chunk.size() == fetchSize) {
+                        handOver(em, chunk, queue);
+                        chunk = new ArrayList<>();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    handOver(em, chunk, queue);
+                }
+            } finally {
+                results.close();
+            }
+        }
+
+        /**
+         * 清空持久化上下文后放入队列，队列已满时等待调用方读取，Stream关闭后放弃
+         */
+        private void handOver(EntityManager em, List<T> chunk, BlockingQueue<List<T>> queue) {
+            em.clear();
+            try {
+                while (!queue.offer(chunk, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        throw new CancellationException("Parallel scan closed");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw JpaPlusException.getException("Parallel scan interrupted", e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (!current.hasNext()) {
+                List<T> chunk = nextChunk();
+                if (chunk == null) {
+                    return false;
+                }
+                current = chunk.iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        private List<T> nextChunk() {
+            if (!ordered) {
+                return futures.isEmpty() ? null : take(queues.get(0), futures);
+            }
+            while (next < futures.size()) {
+                List<T> chunk = take(queues.get(next), Collections.singletonList(futures.get(next)));
+                if (chunk != null) {
+                    return chunk;
+                }
+                next++;
+            }
+            return null;
+        }
+
+        /**
+         * 从队列中取出一批数据
+         * @param producers 写入该队列的分区
+         * @return 分区全部结束且队列为空时返回null
+         */
+        private List<T> take(BlockingQueue<List<T>> queue, List<CompletableFuture<Void>> producers) {
+            try {
+                while (true) {
+                    // 先判断分区是否结束再读取队列，结束之前放入的数据都能读到
+                    boolean done = isDone(producers);
+                    List<T> chunk = queue.poll(done ? 0 : WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (chunk != null || done) {
+                        return chunk;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw JpaPlusException.getException("Parallel scan interrupted", e);
+            }
+        }
+
+        private boolean isDone(List<CompletableFuture<Void>> producers) {
+            for (CompletableFuture<Void> future : futures) {
+                if (future.isCompletedExceptionally()) {
+                    cancel();
+                    try {
+                        future.join();
+                    } catch (CompletionException e) {
+                        throw JpaPlusException.getException("Parallel scan failed", e.getCause());
+                    }
+                }
+            }
+            for (CompletableFuture<Void> future : producers) {
+                if (!future.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+}
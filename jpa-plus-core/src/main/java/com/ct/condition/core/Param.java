@@ -0,0 +1,37 @@
+package com.ct.condition.core;
+
+/**
+ * 预编译条件中的参数占位符，通过{@link Conditions#param(String)}或{@link Conditions#param()}创建
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class Param implements Comparable<Param> {
+
+    private final String name;
+
+    Param(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 参数名，位置参数返回null
+     */
+    public String getName() {
+        return name;
+    }
+
+    public boolean isPositional() {
+        return name == null;
+    }
+
+    @Override
+    public int compareTo(Param o) {
+        return String.valueOf(name).compareTo(String.valueOf(o.name));
+    }
+
+    @Override
+    public String toString() {
+        return name == null ? "?" : ":" + name;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 属性路径解析，a.b.c 形式的路径在构造条件时拆分一次，执行时沿元模型解析：
+ * 关联属性（包括集合）通过join访问，同一个From上相同属性、相同连接类型的join只创建一次，
+ * 连接类型相同的单值关联fetch join直接复用；嵌入属性直接get，不产生join
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class PathResolver {
+
+    private static final String[] EMPTY = new String[0];
+
+    private PathResolver() {
+    }
+
+    /**
+     * 拆分属性路径，不使用正则
+     */
+    static String[] tokenize(String path) {
+        if (path.indexOf('.') == -1) {
+            return new String[]{path};
+        }
+        List<String> tokens = new ArrayList<>(4);
+        int start = 0;
+        for (int i = path.indexOf('.'); i != -1; i = path.indexOf('.', start)) {
+            tokens.add(segment(path, start, i));
+            start = i + 1;
+        }
+        tokens.add(segment(path, start, path.length()));
+        return tokens.toArray(EMPTY);
+    }
+
+    private static String segment(String path, int start, int end) {
+        if (start == end) {
+            throw JpaPlusException.getException("Illegal attribute path " + path);
+        }
+        return path.substring(start, end);
+    }
+
+    /**
+     * 解析已拆分的属性路径
+     * @param root
+     * @param path tokenize的结果
+     * @param joinType 连接类型
+     * @return Path
+     */
+    static Path<?> resolve(Root<?> root, String[] path, JoinType joinType) {
+        int last = path.length - 1;
+        if (last == 0) {
+            return root.get(path[0]);
+        }
+        From<?, ?> from = root;
+        Path<?> current = root;
+        ManagedType<?> type = root.getModel();
+        for (int i = 0; i < last; i++) {
+            Attribute<?, ?> attribute = type == null ? null : type.getAttribute(path[i]);
+            if (current == from && attribute != null && (attribute.isAssociation() || attribute.isCollection())) {
+                from = join(from, path[i], joinType);
+                current = from;
+            } else {
+                current = current.get(path[i]);
+            }
+            type = attribute == null ? null : managedType(attribute);
+        }
+        return current.get(path[last]);
+    }
+
+    /**
+     * 只复用连接类型相同的单值关联fetch join：连接类型不同会改变条件的语义，并使计数查询（不生成fetch）与查询结果不一致；
+     * 在集合fetch join上过滤会截断抓取的集合
+     */
+    private static From<?, ?> join(From<?, ?> from, String attribute, JoinType joinType) {
+        Fetch<?, ?> fetch = FetchPlan.findFetch(from, attribute);
+        if (fetch instanceof From && fetch.getJoinType() == joinType && !fetch.getAttribute().isCollection()) {
+            return (From<?, ?>) fetch;
+        }
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute) && join.getJoinType() == joinType && join.getOn() == null) {
+                return join;
+            }
+        }
+        return from.join(attribute, joinType);
+    }
+
+    private static ManagedType<?> managedType(Attribute<?, ?> attribute) {
+        Type<?> type;
+        if (attribute instanceof PluralAttribute) {
+            type = ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+        } else if (attribute instanceof SingularAttribute) {
+            type = ((SingularAttribute<?, ?>) attribute).getType();
+        } else {
+            return null;
+        }
+        return type instanceof ManagedType ? (ManagedType<?>) type : null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 一次Predicate转换的上下文
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class PredicateContext {
+
+    private final Root<?> root;
+    private final CriteriaBuilder cb;
+    private final List<PreparedCondition.ParameterBinding> parameters;
+
+    PredicateContext(Root<?> root, CriteriaBuilder cb) {
+        this(root, cb, null);
+    }
+
+    PredicateContext(Root<?> root, CriteriaBuilder cb, List<PreparedCondition.ParameterBinding> parameters) {
+        this.root = root;
+        this.cb = cb;
+        this.parameters = parameters;
+    }
+
+    Root<?> getRoot() {
+        return root;
+    }
+
+    CriteriaBuilder getCriteriaBuilder() {
+        return cb;
+    }
+
+    /**
+     * 是否可以绑定参数，由本组件执行的查询才可以
+     */
+    boolean canBind() {
+        return parameters != null;
+    }
+
+    /**
+     * 为参数占位符创建ParameterExpression，每个占位符的每次出现都对应一个独立的参数
+     */
+    @SuppressWarnings("unchecked")
+    <X> Expression<X> parameter(Param param, Handler handler, Class<X> type) {
+        if (parameters == null) {
+            throw JpaPlusException.getException("Condition contains parameter " + param + ", use prepare() to execute it");
+        }
+        return (Expression<X>) register(new PreparedCondition.ParameterBinding(
+                cb.parameter(type, nextName()), param, handler, null, null, false));
+    }
+
+    /**
+     * in查询的集合参数，绑定时按策略去空和补齐
+     */
+    @SuppressWarnings("unchecked")
+    Expression<Collection> inParameter(Param param, Handler handler, InStrategy strategy) {
+        if (parameters == null) {
+            throw JpaPlusException.getException("Condition contains parameter " + param + ", use prepare() to execute it");
+        }
+        return (Expression<Collection>) register(new PreparedCondition.ParameterBinding(
+                cb.parameter(Collection.class, nextName()), param, handler, strategy, null, false));
+    }
+
+    /**
+     * 作为参数绑定的in集合，集合长度补齐后SQL不随值变化
+     */
+    @SuppressWarnings("unchecked")
+    Expression<Collection> inValues(Handler handler, List<?> values) {
+        return (Expression<Collection>) register(new PreparedCondition.ParameterBinding(
+                cb.parameter(Collection.class, nextName()), null, handler, null, values, false));
+    }
+
+    /**
+     * 作为数组绑定的参数，param为null时绑定固定值values
+     */
+    @SuppressWarnings("unchecked")
+    Expression<Object[]> arrayParameter(Param param, Handler handler, Object[] values) {
+        if (parameters == null) {
+            throw JpaPlusException.getException("Array parameter can only be bound by prepared condition");
+        }
+        return (Expression<Object[]>) register(new PreparedCondition.ParameterBinding(
+                cb.parameter(Object[].class, nextName()), param, handler, null, values, true));
+    }
+
+    private String nextName() {
+        return "jpaPlusParam" + parameters.size();
+    }
+
+    private Expression<?> register(PreparedCondition.ParameterBinding binding) {
+        parameters.add(binding);
+        return binding.getExpression();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ct.condition.core;
+
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 叶子节点，对应一个字段上的一个条件
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class PredicateNode implements ConditionNode {
+
+    private final Handler handler;
+    private final String fieldName;
+    /**
+     * 拆分后的属性路径
+     */
+    private final String[] path;
+    private final JoinType joinType;
+    private final Object value;
+    private final long shapeHash;
+    private final long valueHash;
+
+    PredicateNode(Handler handler, String fieldName, String[] path, JoinType joinType, Object value) {
+        this.handler = handler;
+        this.fieldName = fieldName;
+        this.path = path;
+        this.joinType = joinType;
+        this.value = value;
+        long shape = Fingerprint.mix(Fingerprint.SEED, handler.name().hashCode());
+        for (String token : path) {
+            shape = Fingerprint.mix(shape, token.hashCode());
+        }
+        shape = Fingerprint.mix(shape, joinType.name().hashCode());
+        if (value instanceof InValues) {
+            shape = Fingerprint.mix(shape, Fingerprint.bucket((InValues) value));
+        } else {
+            shape = Fingerprint.mix(shape, value instanceof Param ? 1 : 0);
+        }
+        this.shapeHash = shape;
+        this.valueHash = Fingerprint.mix(shape, Fingerprint.value(value));
+    }
+
+    Handler getHandler() {
+        return handler;
+    }
+
+    String getFieldName() {
+        return fieldName;
+    }
+
+    String[] getPath() {
+        return path;
+    }
+
+    JoinType getJoinType() {
+        return joinType;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    @Override
+    public long shapeHash() {
+        return shapeHash;
+    }
+
+    @Override
+    public long valueHash() {
+        return valueHash;
+    }
+
+    /**
+     * 结构和值都相同时相等，用于查询结果缓存的键
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PredicateNode)) {
+            return false;
+        }
+        PredicateNode that = (PredicateNode) o;
+        return valueHash == that.valueHash
+                && handler == that.handler
+                && joinType == that.joinType
+                && Arrays.equals(path, that.path)
+                && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(valueHash);
+    }
+
+    @Override
+    public Predicate toPredicate(PredicateContext context) {
+        return SpecificationFactory.createPredicate(this, context);
+    }
+}
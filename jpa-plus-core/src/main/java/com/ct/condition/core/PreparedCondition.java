@@ -0,0 +1,264 @@
+package com.ct.condition.core;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * 预编译条件
+ * 查询结构在第一次执行时按EntityManagerFactory构造一次并缓存，之后每次执行只绑定参数，
+ * 生成的JPQL不随参数值变化，可以命中Hibernate的查询计划缓存。线程安全，可以保存为常量使用
+ * 如：
+ * PreparedCondition&lt;User&gt; byName = Conditions.prepare(User.class, c -&gt; c.eq(User::getUsername, Conditions.param("u")));
+ * List&lt;User&gt; users = byName.bind("u", "lisi").getResultList(entityManager);
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class PreparedCondition<T> {
+
+    private final Class<T> entityClass;
+    private final ConditionNode node;
+    private final ConcurrentMap<EntityManagerFactory, Shape<T>> shapes = new ConcurrentHashMap<>(2);
+
+    PreparedCondition(Class<T> entityClass, ConditionNode node) {
+        this.entityClass = entityClass;
+        this.node = node;
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 按顺序绑定位置参数
+     * @param values
+     * @return Binding
+     */
+    public Binding<T> bind(Object... values) {
+        return new Binding<>(this, values);
+    }
+
+    /**
+     * 绑定命名参数
+     * @param values
+     * @return Binding
+     */
+    public Binding<T> bind(Map<String, ?> values) {
+        Binding<T> binding = new Binding<>(this, null);
+        binding.named.putAll(values);
+        return binding;
+    }
+
+    /**
+     * 绑定一个命名参数，可以继续调用{@link Binding#bind(String, Object)}绑定其他参数
+     * @param name
+     * @param value
+     * @return Binding
+     */
+    public Binding<T> bind(String name, Object value) {
+        return new Binding<T>(this, null).bind(name, value);
+    }
+
+    /**
+     * 缓存的CriteriaQuery通过CriteriaBuilder引用EntityManagerFactory，使用弱引用的键也无法回收，
+     * 因此在缓存未命中时移除已关闭的EntityManagerFactory，重新创建的EntityManagerFactory不会使旧的查询结构一直驻留
+     */
+    private Shape<T> shape(EntityManager em) {
+        EntityManagerFactory factory = em.getEntityManagerFactory();
+        Shape<T> shape = shapes.get(factory);
+        if (shape == null) {
+            shapes.keySet().removeIf(f -> !f.isOpen());
+            shape = shapes.computeIfAbsent(factory, f -> render(em.getCriteriaBuilder()));
+        }
+        return shape;
+    }
+
+    private Shape<T> render(CriteriaBuilder cb) {
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        List<ParameterBinding> parameters = new ArrayList<>();
+        Predicate predicate = ConditionListeners.toPredicate(node, new PredicateContext(root, cb, parameters));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Map<Param, Integer> positions = new IdentityHashMap<>();
+        for (ParameterBinding parameter : parameters) {
+            if (parameter.param != null && parameter.param.isPositional()) {
+                Integer position = positions.get(parameter.param);
+                if (position == null) {
+                    position = positions.size();
+                    positions.put(parameter.param, position);
+                }
+                parameter.position = position;
+            }
+        }
+        return new Shape<>(query, Collections.unmodifiableList(parameters), positions.size());
+    }
+
+    /**
+     * 参数占位符的一次出现
+     */
+    static final class ParameterBinding {
+
+        private final ParameterExpression<?> expression;
+        private final Param param;
+        private final Handler handler;
+        private final InStrategy strategy;
+        private final Object value;
+        private final boolean array;
+        private int position = -1;
+
+        /**
+         * @param param 参数占位符，为null时绑定固定值value
+         * @param strategy in查询集合参数的策略，不为null时绑定值按策略补齐
+         * @param array 是否作为数组绑定
+         */
+        ParameterBinding(ParameterExpression<?> expression, Param param, Handler handler,
+                         InStrategy strategy, Object value, boolean array) {
+            this.expression = expression;
+            this.param = param;
+            this.handler = handler;
+            this.strategy = strategy;
+            this.value = value;
+            this.array = array;
+        }
+
+        ParameterExpression<?> getExpression() {
+            return expression;
+        }
+
+        /**
+         * 绑定时对参数值做转换，模糊查询拼接通配符，in查询转换为集合
+         */
+        private Object convert(Object value) {
+            switch (handler) {
+                case ALL_LIKE:
+                case LEFT_LIKE:
+                case RIGHT_LIKE:
+                case ALL_LIKE_IGNORE_CASE:
+                case LEFT_LIKE_IGNORE_CASE:
+                case RIGHT_LIKE_IGNORE_CASE:
+                    return SpecificationFactory.likePattern(handler, value);
+                case IN:
+                case NOT_IN: {
+                    Collection<?> collection;
+                    if (value instanceof Collection) {
+                        collection = (Collection<?>) value;
+                    } else if (value.getClass().isArray()) {
+                        collection = Arrays.asList(ArrayUtil.toArray(value));
+                    } else {
+                        collection = Collections.singletonList(value);
+                    }
+                    List<?> notEmptyList = strategy != null ? InValues.of(collection, strategy).getValues()
+                            : collection.stream().filter(Objects::nonNull).collect(Collectors.toList());
+                    if (notEmptyList.isEmpty()) {
+                        throw JpaPlusException.getException("Parameter " + param + " cannot be empty");
+                    }
+                    return array ? notEmptyList.toArray() : notEmptyList;
+                }
+                default:
+                    return value;
+            }
+        }
+
+        /**
+         * 绑定固定值，不是由本类执行的查询不支持参数占位符
+         */
+        void bindConstant(Query query) {
+            if (param != null) {
+                throw JpaPlusException.getException("Condition contains parameter " + param + ", use prepare() to execute it");
+            }
+            bind(query, value);
+        }
+
+        /**
+         * 数组参数需要指定类型，通过Hibernate的Query绑定
+         */
+        @SuppressWarnings("unchecked")
+        void bind(Query query, Object value) {
+            if (array) {
+                query.unwrap(org.hibernate.query.Query.class).setParameter(expression.getName(), value, SqlArrayType.TYPE);
+            } else {
+                query.setParameter((ParameterExpression<Object>) expression, value);
+            }
+        }
+    }
+
+    private static final class Shape<T> {
+        private final CriteriaQuery<T> query;
+        private final List<ParameterBinding> parameters;
+        private final int positionalCount;
+
+        private Shape(CriteriaQuery<T> query, List<ParameterBinding> parameters, int positionalCount) {
+            this.query = query;
+            this.parameters = parameters;
+            this.positionalCount = positionalCount;
+        }
+    }
+
+    /**
+     * 一次执行绑定的参数值，不是线程安全的，每次执行创建一个
+     */
+    public static final class Binding<T> {
+
+        private final PreparedCondition<T> prepared;
+        private final Object[] positional;
+        private final Map<String, Object> named = new HashMap<>();
+
+        private Binding(PreparedCondition<T> prepared, Object[] positional) {
+            this.prepared = prepared;
+            this.positional = positional;
+        }
+
+        public Binding<T> bind(String name, Object value) {
+            named.put(name, value);
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public TypedQuery<T> createQuery(EntityManager em) {
+            Shape<T> shape = prepared.shape(em);
+            int bound = positional == null ? 0 : positional.length;
+            if (bound != shape.positionalCount) {
+                throw JpaPlusException.getException("Expect " + shape.positionalCount + " positional parameters but " + bound + " bound");
+            }
+            TypedQuery<T> query = em.createQuery(shape.query);
+            for (ParameterBinding parameter : shape.parameters) {
+                if (parameter.param == null) {
+                    parameter.bind(query, parameter.value);
+                    continue;
+                }
+                Object value = parameter.param.isPositional() ? positional[parameter.position] : named.get(parameter.param.getName());
+                if (value == null) {
+                    throw JpaPlusException.getException("Parameter " + parameter.param + " is not bound");
+                }
+                parameter.bind(query, parameter.convert(value));
+            }
+            return query;
+        }
+
+        public List<T> getResultList(EntityManager em) {
+            return ConditionListeners.execute(prepared.entityClass, prepared.node, "prepared",
+                    () -> createQuery(em).getResultList(), ArrayList::new, List::size);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ct.condition.core;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 只查询部分字段，使用与条件相同的Predicate，结果为Tuple或通过构造方法转换为DTO，如：
+ * Conditions.select(User::getId, User::getUsername).where(condition).into(UserSummary.class).getResultList(em)
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class Projection<T> {
+
+    private final String[] fields;
+    private final String[][] paths;
+    private Class<T> entityClass;
+    private ConditionNode node = new OperatorNode(Predicate.BooleanOperator.AND, OperatorNode.EMPTY);
+
+    Projection(Class<T> entityClass, String[] fields) {
+        if (fields.length == 0) {
+            throw JpaPlusException.getException("Select fields should not be empty");
+        }
+        this.entityClass = entityClass;
+        this.fields = fields;
+        this.paths = new String[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            paths[i] = PathResolver.tokenize(fields[i]);
+        }
+    }
+
+    /**
+     * 查询的实体，使用where(condition)时可以省略
+     */
+    public Projection<T> from(Class<T> entityClass) {
+        this.entityClass = entityClass;
+        return this;
+    }
+
+    /**
+     * 查询条件，使用条件的快照，之后对条件的修改不影响该查询
+     */
+    public Projection<T> where(AbstractCondition<?, ?, T> condition) {
+        if (condition.getEntityClass() != null) {
+            this.entityClass = condition.getEntityClass();
+        }
+        this.node = condition.buildNode();
+        return this;
+    }
+
+    /**
+     * 将每一行通过构造方法转换为DTO，构造方法参数的个数和类型需要与查询字段一致
+     */
+    public <D> Into<T, D> into(Class<D> type) {
+        return new Into<>(this, type);
+    }
+
+    public TypedQuery<Tuple> createQuery(EntityManager em) {
+        if (entityClass == null) {
+            throw JpaPlusException.getException("Entity class is required, call where(condition) or from(Class)");
+        }
+        return QueryFactory.createQuery(em, entityClass, Tuple.class, node, (query, root) -> {
+            List<Selection<?>> selections = new ArrayList<>(fields.length);
+            for (int i = 0; i < fields.length; i++) {
+                Path<?> path = PathResolver.resolve(root, paths[i], JoinType.INNER);
+                selections.add(path.alias(fields[i]));
+            }
+            query.multiselect(selections);
+        });
+    }
+
+    public List<Tuple> getResultList(EntityManager em) {
+        return ConditionListeners.execute(entityClass, node, "select", () -> createQuery(em).getResultList(), ArrayList::new,
+                List::size);
+    }
+
+    /**
+     * 转换为DTO的查询
+     */
+    public static final class Into<T, D> {
+
+        private final Projection<T> projection;
+        private final Class<D> type;
+
+        private Into(Projection<T> projection, Class<D> type) {
+            this.projection = projection;
+            this.type = type;
+        }
+
+        public List<D> getResultList(EntityManager em) {
+            List<Tuple> tuples = projection.getResultList(em);
+            List<D> result = new ArrayList<>(tuples.size());
+            if (tuples.isEmpty()) {
+                return result;
+            }
+            List<TupleElement<?>> elements = tuples.get(0).getElements();
+            Class<?>[] columnTypes = new Class<?>[elements.size()];
+            for (int i = 0; i < columnTypes.length; i++) {
+                columnTypes[i] = elements.get(i).getJavaType();
+            }
+            ConstructorMapper<D> mapper = ConstructorMapper.of(type, columnTypes);
+            for (Tuple tuple : tuples) {
+                result.add(mapper.map(tuple.toArray()));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ct.condition.core;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 并发执行查询的默认线程池，异步查询、并行扫描和批量查询的并发执行共用一个实例
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class QueryExecutors {
+
+    private QueryExecutors() {
+    }
+
+    /**
+     * 支持虚拟线程的JVM上每个查询一个虚拟线程，否则为按CPU核数创建的有界线程池，首次使用时创建
+     */
+    static Executor getDefault() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        private static final Executor INSTANCE = create();
+
+        /**
+         * Java 21及以上使用虚拟线程，通过反射调用以兼容Java 8
+         */
+        private static Executor create() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "jpa-plus-query");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
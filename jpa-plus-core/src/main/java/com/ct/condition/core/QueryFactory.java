@@ -0,0 +1,211 @@
+package com.ct.condition.core;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * 由本组件直接执行的查询的工厂类，负责转换条件树并绑定生成的参数
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+@SuppressWarnings("unchecked")
+final class QueryFactory {
+
+    private QueryFactory() {
+    }
+
+    /**
+     * 查询实体
+     */
+    static <T> TypedQuery<T> createQuery(EntityManager em, Class<T> entityClass, ConditionNode node, FetchPlan fetchPlan) {
+        return createQuery(em, entityClass, node, fetchPlan, (query, root) -> query.select(root));
+    }
+
+    /**
+     * 查询实体，应用抓取计划
+     */
+    static <T> TypedQuery<T> createQuery(EntityManager em, Class<T> entityClass, ConditionNode node, FetchPlan fetchPlan,
+                                         BiConsumer<CriteriaQuery<T>, Root<T>> customizer) {
+        TypedQuery<T> query = createQuery(em, entityClass, entityClass, node, (criteriaQuery, root) -> {
+            fetchPlan.applyFetches(root, criteriaQuery);
+            customizer.accept(criteriaQuery, root);
+        });
+        fetchPlan.applyHints(query, em, entityClass);
+        return query;
+    }
+
+    /**
+     * 创建查询
+     * @param em
+     * @param entityClass 实体类型
+     * @param resultClass 结果类型
+     * @param node 条件树
+     * @param customizer 设置select、order by、fetch等，在转换条件之前调用
+     * @return TypedQuery
+     */
+    static <T, R> TypedQuery<R> createQuery(EntityManager em, Class<T> entityClass, Class<R> resultClass,
+                                            ConditionNode node, BiConsumer<CriteriaQuery<R>, Root<T>> customizer) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(resultClass);
+        Root<T> root = query.from(entityClass);
+        customizer.accept(query, root);
+        List<PreparedCondition.ParameterBinding> parameters = new ArrayList<>();
+        Predicate predicate = ConditionListeners.toPredicate(node, new PredicateContext(root, cb, parameters));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return bindConstants(em.createQuery(query), parameters);
+    }
+
+    /**
+     * 批量查询，多个条件用or连接在一个查询中执行，每个条件对应一个case when标记列，
+     * 结果的每一行为[实体, 条件1是否满足(1/0), 条件2是否满足, ...]；为空的条件匹配所有数据。
+     * 所有条件共用一个Root，条件生成了join时不能合并，返回null
+     */
+    static <T> TypedQuery<Object[]> createBatchQuery(EntityManager em, Class<T> entityClass, List<ConditionNode> nodes) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(entityClass);
+        List<PreparedCondition.ParameterBinding> parameters = new ArrayList<>();
+        PredicateContext context = new PredicateContext(root, cb, parameters);
+        List<Selection<?>> selections = new ArrayList<>(nodes.size() + 1);
+        selections.add(root);
+        List<Predicate> predicates = new ArrayList<>(nodes.size());
+        boolean matchAll = false;
+        for (ConditionNode node : nodes) {
+            Predicate predicate = ConditionListeners.toPredicate(node, context);
+            if (predicate == null) {
+                matchAll = true;
+                selections.add(cb.literal(1));
+            } else {
+                predicates.add(predicate);
+                selections.add(cb.<Integer>selectCase().when(predicate, 1).otherwise(0));
+            }
+        }
+        if (!root.getJoins().isEmpty()) {
+            return null;
+        }
+        query.multiselect(selections);
+        if (!matchAll) {
+            query.where(cb.or(predicates.toArray(new Predicate[0])));
+        }
+        return bindConstants(em.createQuery(query), parameters);
+    }
+
+    /**
+     * 批量更新，set的值在构造时已转换为属性类型，值为null时设置为null
+     */
+    static <T> Query createUpdateQuery(EntityManager em, Class<T> entityClass, Map<String, Object> values, ConditionNode node) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityClass);
+        Root<T> root = update.from(entityClass);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Path<Object> path = (Path<Object>) PathResolver.resolve(root, PathResolver.tokenize(entry.getKey()), JoinType.INNER);
+            if (entry.getValue() == null) {
+                update.<Object>set(path, cb.nullLiteral((Class<Object>) path.getJavaType()));
+            } else {
+                update.set(path, entry.getValue());
+            }
+        }
+        List<PreparedCondition.ParameterBinding> parameters = new ArrayList<>();
+        Predicate predicate = ConditionListeners.toPredicate(node, new PredicateContext(root, cb, parameters));
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        return bindConstants(em.createQuery(update), parameters);
+    }
+
+    /**
+     * 批量删除
+     */
+    static <T> Query createDeleteQuery(EntityManager em, Class<T> entityClass, ConditionNode node) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaDelete<T> delete = cb.createCriteriaDelete(entityClass);
+        Root<T> root = delete.from(entityClass);
+        List<PreparedCondition.ParameterBinding> parameters = new ArrayList<>();
+        Predicate predicate = ConditionListeners.toPredicate(node, new PredicateContext(root, cb, parameters));
+        if (predicate != null) {
+            delete.where(predicate);
+        }
+        return bindConstants(em.createQuery(delete), parameters);
+    }
+
+    /**
+     * 批量更新或删除之后，将该类型的实体从持久化上下文和二级缓存中移除，
+     * 无法得知哪些实体受影响，按类型全部移除
+     */
+    static void evict(EntityManager em, Class<?> entityClass) {
+        PersistenceContext context = em.unwrap(SessionImplementor.class).getPersistenceContext();
+        for (Map.Entry<Object, EntityEntry> entry : context.reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            if (entityClass.isInstance(entity) && em.contains(entity)) {
+                em.detach(entity);
+            }
+        }
+        em.getEntityManagerFactory().getCache().evict(entityClass);
+    }
+
+    private static <Q extends Query> Q bindConstants(Q query, List<PreparedCondition.ParameterBinding> parameters) {
+        for (PreparedCondition.ParameterBinding parameter : parameters) {
+            parameter.bindConstant(query);
+        }
+        return query;
+    }
+
+    /**
+     * 计数查询，不排序；实体只有一个id属性时count(id)，否则count(实体)
+     */
+    static <T> TypedQuery<Long> createCountQuery(EntityManager em, Class<T> entityClass, ConditionNode node) {
+        return createQuery(em, entityClass, Long.class, node, (query, root) -> {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            EntityType<T> type = root.getModel();
+            if (type.hasSingleIdAttribute()) {
+                query.select(cb.count(root.get(type.getId(type.getIdType().getJavaType()))));
+            } else {
+                query.select(cb.count(root));
+            }
+        });
+    }
+
+    /**
+     * 键的最小值和最大值，select min(key), max(key)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> TypedQuery<Object[]> createRangeQuery(EntityManager em, Class<T> entityClass, ConditionNode node,
+                                                     String[] keyPath, JoinType joinType) {
+        return createQuery(em, entityClass, Object[].class, node, (query, root) -> {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            Expression key = PathResolver.resolve(root, keyPath, joinType);
+            query.multiselect(cb.least(key), cb.greatest(key));
+        });
+    }
+
+    /**
+     * 判断是否存在的查询，select 1 ... limit 1
+     */
+    static <T> TypedQuery<Integer> createExistsQuery(EntityManager em, Class<T> entityClass, ConditionNode node) {
+        return createQuery(em, entityClass, Integer.class, node, (query, root) ->
+                query.select(em.getCriteriaBuilder().literal(1))).setMaxResults(1);
+    }
+}
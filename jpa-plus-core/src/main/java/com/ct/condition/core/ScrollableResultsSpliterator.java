@@ -0,0 +1,108 @@
+package com.ct.condition.core;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * 基于ScrollableResults按需拉取数据的Spliterator
+ * 每拉取detachSize条数据，将游标打开之后进入持久化上下文的实体（包括返回的实体、抓取和延迟加载的关联实体）全部移除，
+ * 游标打开之前已经存在的实体不受影响，内存占用不随结果数量增长；
+ * 数据读取完毕或出现异常时关闭游标
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class ScrollableResultsSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private final ScrollableResults results;
+    private final EntityManager em;
+    private final int detachSize;
+    private final Set<Object> preexisting;
+    private int pending;
+    private boolean closed;
+
+    /**
+     * @param preexisting 游标打开之前持久化上下文中的实体，见{@link #managedEntities(EntityManager)}
+     */
+    ScrollableResultsSpliterator(ScrollableResults results, EntityManager em, int detachSize, Set<Object> preexisting) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.results = results;
+        this.em = em;
+        this.detachSize = detachSize;
+        this.preexisting = preexisting;
+    }
+
+    /**
+     * 持久化上下文中当前的实体，按引用比较
+     */
+    static Set<Object> managedEntities(EntityManager em) {
+        Set<Object> entities = Collections.newSetFromMap(new IdentityHashMap<>());
+        PersistenceContext context = em.unwrap(SessionImplementor.class).getPersistenceContext();
+        if (context.getNumberOfManagedEntities() > 0) {
+            for (Map.Entry<Object, EntityEntry> entry : context.reentrantSafeEntityEntries()) {
+                entities.add(entry.getKey());
+            }
+        }
+        return entities;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        T next;
+        try {
+            if (pending >= detachSize) {
+                detach();
+            }
+            if (!results.next()) {
+                close();
+                return false;
+            }
+            next = (T) results.get(0);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        pending++;
+        action.accept(next);
+        return true;
+    }
+
+    /**
+     * 移除游标打开之后加载的实体，实体的集合属性随实体一起移除
+     */
+    private void detach() {
+        PersistenceContext context = em.unwrap(SessionImplementor.class).getPersistenceContext();
+        if (context.getNumberOfManagedEntities() > preexisting.size()) {
+            for (Map.Entry<Object, EntityEntry> entry : context.reentrantSafeEntityEntries()) {
+                Object entity = entry.getKey();
+                if (!preexisting.contains(entity) && em.contains(entity)) {
+                    em.detach(entity);
+                }
+            }
+        }
+        pending = 0;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            results.close();
+        }
+    }
+}
@@ -9,8 +9,15 @@ package com.ct.condition.core;
  */
 public class SimpleCondition<T> extends AbstractCondition<SimpleCondition<T>, String, T> {
 
+    public SimpleCondition() {
+    }
+
+    public SimpleCondition(Class<T> entityClass) {
+        super(entityClass);
+    }
+
     @Override
     protected SimpleCondition<T> instance() {
-        return new SimpleCondition<>();
+        return new SimpleCondition<>(getEntityClass());
     }
 }
@@ -10,9 +10,16 @@ package com.ct.condition.core;
 public class SimpleLambdaCondition<T> extends
         AbstractCondition<SimpleLambdaCondition<T>, SFunction<T,?>, T> implements LambdaColumnConverter<T> {
 
+    public SimpleLambdaCondition() {
+    }
+
+    public SimpleLambdaCondition(Class<T> entityClass) {
+        super(entityClass);
+    }
+
     @Override
     protected SimpleLambdaCondition<T> instance() {
-        return new SimpleLambdaCondition<>();
+        return new SimpleLambdaCondition<>(getEntityClass());
     }
 
     @Override
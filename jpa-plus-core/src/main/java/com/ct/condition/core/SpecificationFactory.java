@@ -1,140 +1,242 @@
 package com.ct.condition.core;
 
-import org.springframework.data.jpa.domain.Specification;
-
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Path;
-import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Predicate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 /**
- * 构造Specification的工厂类
+ * 构造条件节点及Predicate的工厂类
  * @author chentao
  */
 @SuppressWarnings("unchecked")
 final class SpecificationFactory {
 
     /**
-     * 创建Specification 静态工厂方法
+     * 模糊查询的转义字符
+     */
+    static final char LIKE_ESCAPE = '\\';
+
+    /**
+     * 创建条件节点 静态工厂方法
      * @param handler
      * @param fieldName
      * @param val
-     * @param <T>
-     * @return
+     * @return 值为空时返回null，表示忽略该条件
+     */
+    public static PredicateNode createNode(Handler handler, String fieldName, Object val) {
+        return createNode(handler, fieldName, val, JoinType.INNER);
+    }
+
+    /**
+     * 创建条件节点，属性路径在此时拆分
+     * @param joinType 路径经过关联属性时使用的连接类型
      */
-    public static <T> Specification<T> createSpec(Handler handler, String fieldName, Object val) {
+    public static PredicateNode createNode(Handler handler, String fieldName, Object val, JoinType joinType) {
         if (fieldName == null) {
             throw JpaPlusException.getException("fieldName cannot be null");
         }
+        return createNode(handler, fieldName, PathResolver.tokenize(fieldName), val, joinType);
+    }
+
+    /**
+     * 使用已拆分的属性路径创建条件节点
+     */
+    static PredicateNode createNode(Handler handler, String fieldName, String[] path, Object val, JoinType joinType) {
         if (val == null && handler != Handler.IS_NOT_NULL && handler != Handler.IS_NULL) {
             return null;
         }
-        switch (handler) {
+        return new PredicateNode(handler, fieldName, path, joinType, val);
+    }
+
+    /**
+     * 将条件节点转换为Predicate
+     * @param node
+     * @param context
+     * @return
+     */
+    public static Predicate createPredicate(PredicateNode node, PredicateContext context) {
+        CriteriaBuilder cb = context.getCriteriaBuilder();
+        Path path = PathResolver.resolve(context.getRoot(), node.getPath(), node.getJoinType());
+        switch (node.getHandler()) {
+            case IN:
+                return in(node, path, context);
+            case NOT_IN:
+                return in(node, path, context).not();
             case EQUAL:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.equal(path, val);
-                };
+                return cb.equal(path, operand(node, path, context));
             case NOT_EQUAL:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.equal(path, val).not();
-                };
+                return cb.equal(path, operand(node, path, context)).not();
             case GE:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.greaterThanOrEqualTo(path, (Comparable) val);
-                };
+                return cb.greaterThanOrEqualTo(path, (Expression) operand(node, path, context));
             case GT:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.greaterThan(path, (Comparable) val);
-                };
+                return cb.greaterThan(path, (Expression) operand(node, path, context));
             case LE:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.lessThanOrEqualTo(path, (Comparable) val);
-                };
+                return cb.lessThanOrEqualTo(path, (Expression) operand(node, path, context));
             case LT:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.lessThan(path, (Comparable) val);
-                };
+                return cb.lessThan(path, (Expression) operand(node, path, context));
             case ALL_LIKE:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.like(path, "%" + val + "%");
-                };
             case LEFT_LIKE:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.like(path, "%" + val);
-                };
             case RIGHT_LIKE:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.like(path, val + "%");
-                };
-            case IN: {
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = parseRootPath(root, fieldName);
-                    if (val instanceof Collection) {
-                        Collection notEmptyList = (List) ((Collection) val).stream()
-                                .filter(Objects::nonNull).collect(Collectors.toList());
-                        return path.in(notEmptyList);
-                    } else {
-                        throw JpaPlusException.getException("Value Must be Collection Instance!");
-                    }
-                };
+                return cb.like(path, (Expression<String>) operand(node, path, context), LIKE_ESCAPE);
+            case ALL_LIKE_IGNORE_CASE:
+            case LEFT_LIKE_IGNORE_CASE:
+            case RIGHT_LIKE_IGNORE_CASE:
+                // 只对字段调用lower，匹配模式在Java中转换为小写，可以使用lower(字段)上的函数索引
+                return cb.like(cb.lower(path), (Expression<String>) operand(node, path, context), LIKE_ESCAPE);
+            case MATCH: {
+                TextSearch search = TextSearch.of(path, cb);
+                if (search.isLike()) {
+                    return cb.like(path, (Expression<String>) operand(Handler.ALL_LIKE, node.getValue(), path, context), LIKE_ESCAPE);
+                }
+                return search.toPredicate(cb, path, (Expression<String>) operand(Handler.MATCH, node.getValue(), path, context));
             }
-            case NOT_IN: {
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = parseRootPath(root, fieldName);
-                    if (val instanceof Collection) {
-                        Collection notEmptyList = (List) ((Collection) val).stream()
-                                .filter(Objects::nonNull).collect(Collectors.toList());
-                        return path.in(notEmptyList).not();
-                    } else {
-                        throw JpaPlusException.getException("Value Must be Collection Instance!");
-                    }
-                };
+            case BETWEEN: {
+                Bounds bounds = (Bounds) node.getValue();
+                return cb.between(path, (Expression) cb.literal(bounds.getLow()), (Expression) cb.literal(bounds.getHigh()));
             }
             case IS_NOT_NULL:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.isNotNull(path);
-                };
+                return cb.isNotNull(path);
             case IS_NULL:
-                return (Specification<T>) (root, query, cb) -> {
-                    Path path = root.get(fieldName);
-                    return cb.isNull(path);
-                };
+                return cb.isNull(path);
             default:
                 break;
         }
         return null;
     }
 
-    public static <T> Path parseRootPath(Root<T> root, String attrName) {
-        Path path = null;
-        if (attrName.indexOf('.') != -1) {
-            String[] attrArr = attrName.split("\\.");
-            for (int i = 0; i <= attrArr.length - 1; i++) {
-                if (path == null) {
-                    path = root.get(attrArr[i]);
-                } else {
-                    path = path.get(attrArr[i]);
-                }
+    /**
+     * 条件右侧的表达式，参数占位符转换为ParameterExpression，其余转换为字面量
+     */
+    private static Expression<?> operand(PredicateNode node, Path<?> path, PredicateContext context) {
+        return operand(node.getHandler(), node.getValue(), path, context);
+    }
+
+    private static Expression<?> operand(Handler handler, Object val, Path<?> path, PredicateContext context) {
+        boolean like = isLike(handler);
+        if (val instanceof Param) {
+            Class<?> type = like || handler == Handler.MATCH ? String.class : path.getJavaType();
+            return context.parameter((Param) val, handler, type);
+        }
+        return context.getCriteriaBuilder().literal(like ? likePattern(handler, val) : val);
+    }
+
+    /**
+     * in查询，值在构造条件时已经去空和补齐；超过chunkSize时拆分为多个in用or连接，
+     * 由本组件执行查询时，达到阈值的集合作为一个数组参数绑定
+     */
+    private static Predicate in(PredicateNode node, Path<?> path, PredicateContext context) {
+        InValues in = (InValues) node.getValue();
+        InStrategy strategy = in.getStrategy();
+        CriteriaBuilder cb = context.getCriteriaBuilder();
+        Param param = in.getParam();
+        if (param != null) {
+            if (strategy.getArrayFunction() != null) {
+                return arrayContains(strategy, context.arrayParameter(param, node.getHandler(), null), path, cb);
             }
-        } else {
-            path = root.get(attrName);
+            return path.in(context.inParameter(param, node.getHandler(), strategy));
+        }
+        List<?> values = in.getValues();
+        if (context.canBind() && strategy.useArray(values.size())) {
+            return arrayContains(strategy, context.arrayParameter(null, node.getHandler(), values.toArray()), path, cb);
+        }
+        int chunkSize = strategy.getChunkSize();
+        if (chunkSize <= 0 || values.size() <= chunkSize) {
+            return inList(node.getHandler(), strategy, values, path, context);
+        }
+        Predicate[] chunks = new Predicate[(values.size() + chunkSize - 1) / chunkSize];
+        for (int i = 0; i < chunks.length; i++) {
+            List<?> chunk = new ArrayList<>(values.subList(i * chunkSize, Math.min(values.size(), (i + 1) * chunkSize)));
+            chunks[i] = inList(node.getHandler(), strategy, chunk, path, context);
+        }
+        return cb.or(chunks);
+    }
+
+    /**
+     * 开启补齐且由本组件执行查询时，集合作为一个参数绑定；否则数值等字面量会直接写入SQL，补齐不能使SQL保持不变
+     */
+    private static Predicate inList(Handler handler, InStrategy strategy, List<?> values, Path<?> path, PredicateContext context) {
+        if (strategy.isPadding() && context.canBind()) {
+            return path.in(context.inValues(handler, values));
         }
-        return path;
+        return path.in(values);
     }
 
+    private static Predicate arrayContains(InStrategy strategy, Expression<Object[]> array, Path<?> path, CriteriaBuilder cb) {
+        return cb.isTrue(cb.function(strategy.getArrayFunction(), Boolean.class, array, path));
+    }
 
-}
+    static boolean isLike(Handler handler) {
+        switch (handler) {
+            case ALL_LIKE:
+            case LEFT_LIKE:
+            case RIGHT_LIKE:
+            case ALL_LIKE_IGNORE_CASE:
+            case LEFT_LIKE_IGNORE_CASE:
+            case RIGHT_LIKE_IGNORE_CASE:
+                return true;
+            default:
+                return false;
+        }
+    }
 
+    /**
+     * 根据模糊查询类型生成匹配模式，值中的%、_和转义字符按{@link #LIKE_ESCAPE}转义，只匹配字面值
+     */
+    static String likePattern(Handler handler, Object val) {
+        String text = escapeLike(String.valueOf(val));
+        switch (handler) {
+            case ALL_LIKE:
+                return "%" + text + "%";
+            case LEFT_LIKE:
+                return "%" + text;
+            case RIGHT_LIKE:
+                return text + "%";
+            case ALL_LIKE_IGNORE_CASE:
+                return "%" + text.toLowerCase(Locale.ROOT) + "%";
+            case LEFT_LIKE_IGNORE_CASE:
+                return "%" + text.toLowerCase(Locale.ROOT);
+            case RIGHT_LIKE_IGNORE_CASE:
+                return text.toLowerCase(Locale.ROOT) + "%";
+            default:
+                throw JpaPlusException.getException("Unsupported like handler " + handler);
+        }
+    }
+
+    private static String escapeLike(String text) {
+        StringBuilder builder = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                if (builder == null) {
+                    builder = new StringBuilder(text.length() + 8).append(text, 0, i);
+                }
+                builder.append(LIKE_ESCAPE);
+            }
+            if (builder != null) {
+                builder.append(c);
+            }
+        }
+        return builder == null ? text : builder.toString();
+    }
 
+    /**
+     * 右模糊查询改写为范围查询时的上界，即最后一个字符加一，如abc的上界为abd；
+     * 值为空或最后一个字符不能加一（代理对、最大字符）时返回null
+     */
+    static String prefixUpperBound(String prefix) {
+        if (prefix.isEmpty()) {
+            return null;
+        }
+        char last = prefix.charAt(prefix.length() - 1);
+        if (last == Character.MAX_VALUE || Character.isSurrogate(last) || Character.isSurrogate((char) (last + 1))) {
+            return null;
+        }
+        return prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.ct.condition.core;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.CustomType;
+import org.hibernate.type.Type;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 将Object[]作为一个JDBC数组参数绑定，只用于参数绑定，不支持读取
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+final class SqlArrayType implements UserType {
+
+    static final Type TYPE = new CustomType(new SqlArrayType());
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[]{Types.ARRAY};
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return Object[].class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Arrays.equals((Object[]) x, (Object[]) y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return Arrays.hashCode((Object[]) x);
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) {
+        throw JpaPlusException.getException("SqlArrayType is only used for binding parameters");
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.ARRAY);
+            return;
+        }
+        Object[] elements = (Object[]) value;
+        Array array = st.getConnection().createArrayOf(elementTypeName(elements), elements);
+        st.setArray(index, array);
+    }
+
+    /**
+     * 数组元素的SQL类型名，部分数据库（如PostgreSQL）创建数组时需要
+     */
+    private static String elementTypeName(Object[] elements) {
+        Object first = elements.length == 0 ? null : elements[0];
+        if (first instanceof Long) {
+            return "bigint";
+        } else if (first instanceof Integer || first instanceof Short || first instanceof Byte) {
+            return "integer";
+        } else if (first instanceof BigDecimal) {
+            return "numeric";
+        } else if (first instanceof UUID) {
+            return "uuid";
+        }
+        return "varchar";
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+}
@@ -0,0 +1,231 @@
+package com.ct.condition.core;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.criteria.internal.CriteriaBuilderImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * match条件的全文检索策略，不可变对象。按实体属性选择，优先使用{@link #register}注册的策略，
+ * 其次使用属性上的{@link FullText}注解，都没有时退化为 like '%query%'。
+ * 全文检索函数的签名为function(column, query)，需要在数据库方言中注册，如MySQL：
+ * registerFunction("match_against", new SQLFunctionTemplate(DoubleType.INSTANCE, "match(?1) against (?2 in boolean mode)"))
+ * 然后：TextSearch.register(Article.class, "title", TextSearch.score("match_against"))
+ * 启动时调用{@link #verify(EntityManagerFactory)}对实体属性上配置的函数各执行一次探测查询，函数不存在或不可用（如缺少全文索引）时
+ * 记录警告，之后该EntityManagerFactory中对该属性的match退化为like；构造条件时只读取探测结果，不执行查询，
+ * 未探测的属性直接使用配置的函数
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class TextSearch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TextSearch.class);
+    private static final TextSearch LIKE = new TextSearch(null, false);
+
+    private static final ConcurrentMap<List<Object>, TextSearch> REGISTERED = new ConcurrentHashMap<>();
+    /**
+     * 类中带{@link FullText}注解的字段和方法，按成员名称索引；随类一起回收，不会阻止应用类加载器卸载
+     */
+    private static final ClassValue<Map<String, TextSearch>> ANNOTATED = new ClassValue<Map<String, TextSearch>>() {
+        @Override
+        protected Map<String, TextSearch> computeValue(Class<?> type) {
+            Map<String, TextSearch> annotated = new HashMap<>();
+            for (Field field : type.getDeclaredFields()) {
+                put(annotated, field.getName(), field.getAnnotation(FullText.class));
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.getParameterCount() == 0) {
+                    put(annotated, method.getName(), method.getAnnotation(FullText.class));
+                }
+            }
+            return annotated;
+        }
+
+        private void put(Map<String, TextSearch> annotated, String name, FullText fullText) {
+            if (fullText != null) {
+                annotated.put(name, new TextSearch(requireFunction(fullText.value()), fullText.score()));
+            }
+        }
+    };
+    /**
+     * {@link #verify(EntityManagerFactory)}的探测结果，按EntityManagerFactory保存，键为实体、属性、函数和是否返回相关度
+     */
+    private static final ConcurrentMap<EntityManagerFactory, ConcurrentMap<List<Object>, Boolean>> AVAILABLE =
+            new ConcurrentHashMap<>(2);
+
+    private final String function;
+    private final boolean score;
+
+    private TextSearch(String function, boolean score) {
+        this.function = function;
+        this.score = score;
+    }
+
+    /**
+     * 使用 like '%query%'，查询值中的通配符按字面值匹配
+     */
+    public static TextSearch like() {
+        return LIKE;
+    }
+
+    /**
+     * 使用返回布尔值的函数，条件为 function(column, query) = true
+     * @param function 函数名
+     * @return TextSearch
+     */
+    public static TextSearch function(String function) {
+        return new TextSearch(requireFunction(function), false);
+    }
+
+    /**
+     * 使用返回相关度的函数，条件为 function(column, query) &gt; 0
+     * @param function 函数名
+     * @return TextSearch
+     */
+    public static TextSearch score(String function) {
+        return new TextSearch(requireFunction(function), true);
+    }
+
+    /**
+     * 为实体属性注册策略，覆盖属性上的注解，如全文索引只在部分环境中存在时按环境注册
+     * @param entityClass 属性所在的实体或嵌入类
+     * @param attribute 属性名
+     * @param search 策略，为null时取消注册
+     */
+    public static void register(Class<?> entityClass, String attribute, TextSearch search) {
+        List<Object> key = Arrays.asList(entityClass, attribute);
+        if (search == null) {
+            REGISTERED.remove(key);
+        } else {
+            REGISTERED.put(key, search);
+        }
+    }
+
+    private static String requireFunction(String function) {
+        if (StringUtil.isEmpty(function)) {
+            throw JpaPlusException.getException("Text search function cannot be empty");
+        }
+        return function;
+    }
+
+    /**
+     * 属性路径对应的策略，全文检索函数不可用时返回like
+     */
+    static TextSearch of(Path<?> path, CriteriaBuilder cb) {
+        if (!(path.getModel() instanceof Attribute) || path.getParentPath() == null) {
+            return LIKE;
+        }
+        Attribute<?, ?> attribute = (Attribute<?, ?>) path.getModel();
+        TextSearch search = configured(path.getParentPath().getJavaType(), attribute);
+        if (search.isLike() || search.isAvailable(cb, path.getParentPath().getJavaType(), attribute.getName())) {
+            return search;
+        }
+        return LIKE;
+    }
+
+    private static TextSearch configured(Class<?> owner, Attribute<?, ?> attribute) {
+        TextSearch registered = REGISTERED.get(Arrays.asList(owner, attribute.getName()));
+        Member member = attribute.getJavaMember();
+        if (registered == null && member != null) {
+            registered = REGISTERED.get(Arrays.asList(member.getDeclaringClass(), attribute.getName()));
+        }
+        if (registered != null) {
+            return registered;
+        }
+        if (!(member instanceof Field) && !(member instanceof Method)) {
+            return LIKE;
+        }
+        return ANNOTATED.get(member.getDeclaringClass()).getOrDefault(member.getName(), LIKE);
+    }
+
+    /**
+     * 探测所有实体的属性上配置的全文检索函数是否可用，在启动时、没有其他事务占用连接时调用，如：
+     * TextSearch.verify(entityManagerFactory)
+     * 只探测实体自身的属性，嵌入类的属性不探测；再次调用时重新探测，注册新的策略后需要重新调用
+     * @param emf
+     */
+    public static void verify(EntityManagerFactory emf) {
+        EntityManagerFactory factory = emf.unwrap(SessionFactoryImplementor.class);
+        // 与PreparedCondition相同，移除已关闭的EntityManagerFactory
+        AVAILABLE.keySet().removeIf(f -> !f.isOpen());
+        ConcurrentMap<List<Object>, Boolean> probed = new ConcurrentHashMap<>();
+        for (EntityType<?> entity : factory.getMetamodel().getEntities()) {
+            for (Attribute<?, ?> attribute : entity.getAttributes()) {
+                TextSearch search = configured(entity.getJavaType(), attribute);
+                if (!search.isLike()) {
+                    probed.put(search.key(entity.getJavaType(), attribute.getName()),
+                            search.probe(factory, entity.getJavaType(), attribute.getName()));
+                }
+            }
+        }
+        AVAILABLE.put(factory, probed);
+    }
+
+    /**
+     * 读取{@link #verify(EntityManagerFactory)}的探测结果，没有探测过时视为可用
+     */
+    private boolean isAvailable(CriteriaBuilder cb, Class<?> owner, String attribute) {
+        if (!(cb instanceof CriteriaBuilderImpl)) {
+            return true;
+        }
+        Map<List<Object>, Boolean> probed = AVAILABLE.get(((CriteriaBuilderImpl) cb).getEntityManagerFactory());
+        return probed == null || probed.getOrDefault(key(owner, attribute), Boolean.TRUE);
+    }
+
+    private List<Object> key(Class<?> owner, String attribute) {
+        return Arrays.asList(owner, attribute, function, score);
+    }
+
+    /**
+     * 使用独立的EntityManager执行一次只取一行的查询
+     */
+    private Boolean probe(EntityManagerFactory factory, Class<?> owner, String attribute) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<Object> query = cb.createQuery();
+            Root<?> root = query.from(owner);
+            query.select(root).where(toPredicate(cb, root.get(attribute), cb.literal("")));
+            em.createQuery(query).setMaxResults(1).getResultList();
+            return Boolean.TRUE;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Text search function {} is not available on {}.{}, fall back to like",
+                    function, owner.getSimpleName(), attribute, e);
+            return Boolean.FALSE;
+        } finally {
+            em.close();
+        }
+    }
+
+    boolean isLike() {
+        return function == null;
+    }
+
+    Predicate toPredicate(CriteriaBuilder cb, Path<?> path, Expression<String> query) {
+        if (score) {
+            return cb.greaterThan(cb.function(function, Double.class, path, query), 0d);
+        }
+        return cb.isTrue(cb.function(function, Boolean.class, path, query));
+    }
+}
@@ -0,0 +1,123 @@
+package com.ct.condition.core;
+
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+
+/**
+ * 通过生成的属性描述调用，如：Conditions.typedUse(User.class).eq(UserCols.USERNAME, "lisi")
+ * 比较和集合条件的值必须是属性的类型，编译时由类型化的重载检查；值的类型与属性类型不同时（如eq(UserCols.ID, "1")）
+ * 在构造条件时抛出异常，不做转换
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public class TypedCondition<T> extends AbstractCondition<TypedCondition<T>, Column<T, ?>, T> {
+
+    public TypedCondition() {
+    }
+
+    public TypedCondition(Class<T> entityClass) {
+        super(entityClass);
+    }
+
+    @Override
+    protected TypedCondition<T> instance() {
+        return new TypedCondition<>(getEntityClass());
+    }
+
+    @Override
+    protected String columnToString(Column<T, ?> column) {
+        return column.getName();
+    }
+
+    @Override
+    void checkValue(Handler handler, Column<T, ?> column, Object val) {
+        switch (handler) {
+            case EQUAL:
+            case NOT_EQUAL:
+            case GT:
+            case GE:
+            case LT:
+            case LE:
+                checkType(column, val);
+                break;
+            case IN:
+            case NOT_IN:
+                if (val != null) {
+                    for (Object value : ((InValues) val).getValues()) {
+                        checkType(column, value);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    Class<?> javaType(Column<T, ?> column) {
+        return column.getJavaType();
+    }
+
+    private static void checkType(Column<?, ?> column, Object val) {
+        if (val == null || val instanceof Param) {
+            return;
+        }
+        Class<?> javaType = ClassUtils.resolvePrimitiveIfNecessary(column.getJavaType());
+        if (!javaType.isInstance(val)) {
+            throw JpaPlusException.getException("Value of type " + val.getClass().getSimpleName() + " does not match "
+                    + javaType.getSimpleName() + " column " + column.getName());
+        }
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> eq(Column<T, V> column, V val) {
+        return super.eq(column, val);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> notEq(Column<T, V> column, V val) {
+        return super.notEq(column, val);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> gt(Column<T, V> column, V val) {
+        return super.gt(column, val);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> ge(Column<T, V> column, V val) {
+        return super.ge(column, val);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> lt(Column<T, V> column, V val) {
+        return super.lt(column, val);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> le(Column<T, V> column, V val) {
+        return super.le(column, val);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> in(Column<T, V> column, Collection<V> collection) {
+        return super.in(column, collection);
+    }
+
+    @SafeVarargs
+    public final <V extends Comparable<? super V>> TypedCondition<T> in(Column<T, V> column, V... array) {
+        return super.in(column, array);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> notIn(Column<T, V> column, Collection<V> collection) {
+        return super.notIn(column, collection);
+    }
+
+    @SafeVarargs
+    public final <V extends Comparable<? super V>> TypedCondition<T> notIn(Column<T, V> column, V... array) {
+        return super.notIn(column, array);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> between(Column<T, V> column, V low, V up) {
+        return super.between(column, low, up);
+    }
+
+    public <V extends Comparable<? super V>> TypedCondition<T> notBetween(Column<T, V> column, V low, V up) {
+        return super.notBetween(column, low, up);
+    }
+}
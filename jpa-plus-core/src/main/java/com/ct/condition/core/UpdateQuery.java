@@ -0,0 +1,94 @@
+package com.ct.condition.core;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按条件批量更新，生成一条update语句，不加载实体，如：
+ * Conditions.update(User.class).set(User::getRealname, "李四").where(condition).execute(em)
+ * 需要在事务中执行，条件中不能使用关联属性的路径
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public final class UpdateQuery<T> {
+
+    private final Class<T> entityClass;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private ConditionNode node;
+    private boolean evict;
+
+    UpdateQuery(Class<T> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    public <V> UpdateQuery<T> set(SFunction<T, V> field, V value) {
+        return set(LambdaUtils.extractColumnName(field), value);
+    }
+
+    public <V> UpdateQuery<T> set(Column<T, V> field, V value) {
+        return set(field.getName(), value);
+    }
+
+    /**
+     * 设置属性的值，执行时转换为属性的类型
+     * @param field
+     * @param value 为null时设置为null
+     * @return UpdateQuery
+     */
+    public UpdateQuery<T> set(String field, Object value) {
+        values.put(field, value);
+        return this;
+    }
+
+    /**
+     * 更新的条件，使用条件的快照；更新全部数据时需要显式传入空的条件
+     */
+    public UpdateQuery<T> where(AbstractCondition<?, ?, T> condition) {
+        this.node = condition.buildNode();
+        return this;
+    }
+
+    public UpdateQuery<T> where(FrozenCondition<T> condition) {
+        this.node = condition.getNode();
+        return this;
+    }
+
+    /**
+     * 执行后是否将该类型的实体从持久化上下文和二级缓存中移除，避免读取到旧的数据
+     */
+    public UpdateQuery<T> evict(boolean evict) {
+        this.evict = evict;
+        return this;
+    }
+
+    /**
+     * 执行更新
+     * @param em
+     * @return 更新的行数
+     */
+    public int execute(EntityManager em) {
+        if (values.isEmpty()) {
+            throw JpaPlusException.getException("Nothing to update, call set(...) first");
+        }
+        if (node == null) {
+            throw JpaPlusException.getException("Condition is required, call where(condition) first");
+        }
+        EntityAttributes attributes = EntityAttributes.of(em.getMetamodel(), entityClass);
+        Map<String, Object> converted = new LinkedHashMap<>(values.size() * 2);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            converted.put(entry.getKey(), attributes.get(entry.getKey()).coerce(Handler.EQUAL, entry.getValue()));
+        }
+        int rows = ConditionListeners.execute(entityClass, node, "update",
+                () -> QueryFactory.createUpdateQuery(em, entityClass, converted, node).executeUpdate(), () -> 0, Integer::longValue);
+        if (rows == 0) {
+            return rows;
+        }
+        ConditionCache.invalidateAll(entityClass);
+        if (evict) {
+            QueryFactory.evict(em, entityClass);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,209 @@
+package com.ct.condition;
+
+import com.ct.condition.core.Conditions;
+import com.ct.condition.core.FilterParser;
+import com.ct.condition.core.JpaPlusException;
+import com.ct.condition.core.SimpleCondition;
+import com.ct.condition.core.SimpleLambdaCondition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+* @description Condition with association Tester.
+* @author ThomasChan
+* @version 1.0
+*/
+@SpringBootTest
+@RunWith(value = SpringRunner.class)
+public class AssociationConditionTest {
+
+    @Autowired
+    private DeptRepository deptRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Before
+    public void init() {
+        Dept dev = new Dept(1L, "develop", "D01", 10);
+        Dept sale = new Dept(2L, "sale", "S01", 3);
+        deptRepository.saveAll(Arrays.asList(dev, sale));
+        employeeRepository.saveAll(Arrays.asList(
+                new Employee(1L, "zhangsan", dev),
+                new Employee(2L, "lisi", dev),
+                new Employee(3L, "wangwu", sale)
+        ));
+    }
+
+    @After
+    public void destory() {
+        employeeRepository.deleteAll();
+        deptRepository.deleteAll();
+    }
+
+    @Test
+    public void testFetch() {
+        PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        SimpleLambdaCondition<Employee> condition = Conditions.lambdaUse(Employee.class)
+                .in(Employee::getId, 1L, 2L)
+                .fetch(Employee::getDept);
+        List<Employee> all = employeeRepository.findAll(condition.toSpec());
+        Assert.assertEquals(2, all.size());
+        Assert.assertTrue(all.stream().allMatch(i -> util.isLoaded(i.getDept())));
+
+        Page<Employee> page = employeeRepository.findAll(condition.toSpec(), PageRequest.of(0, 1));
+        Assert.assertEquals(2, page.getTotalElements());
+
+        all = Conditions.use(Employee.class)
+                .eq("dept.code", "S01")
+                .fetch("dept")
+                .findAll(entityManager);
+        Assert.assertEquals(1, all.size());
+        Assert.assertTrue(util.isLoaded(all.get(0).getDept()));
+    }
+
+    @Test
+    public void testEntityGraph() {
+        PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Employee> all = Conditions.lambdaUse(Employee.class)
+                .namedEntityGraph("Employee.dept")
+                .findAll(entityManager);
+        Assert.assertEquals(3, all.size());
+        Assert.assertTrue(all.stream().allMatch(i -> util.isLoaded(i.getDept())));
+
+        all = Conditions.lambdaUse(Employee.class)
+                .eq(Employee::getName, "lisi")
+                .entityGraph(Employee::getDept)
+                .findAll(entityManager);
+        Assert.assertTrue(util.isLoaded(all.get(0).getDept()));
+    }
+
+    @Test
+    public void testJoinReuse() {
+        SimpleCondition<Employee> condition = Conditions.use(Employee.class)
+                .eq("dept.code", "D01")
+                .allLike("dept.name", "dev");
+        List<Employee> all = employeeRepository.findAll(condition.toSpec());
+        Assert.assertEquals(2, all.size());
+        Assert.assertEquals(2, Conditions.typedUse(Employee.class)
+                .eq(EmployeeCols.DEPT.then(DeptCols.CODE), "D01")
+                .count(entityManager));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+        Root<Employee> root = query.from(Employee.class);
+        condition.toSpec().toPredicate(root, query, cb);
+        Assert.assertEquals(1, root.getJoins().size());
+        Assert.assertEquals(JoinType.INNER, root.getJoins().iterator().next().getJoinType());
+
+        query = cb.createQuery(Employee.class);
+        root = query.from(Employee.class);
+        Conditions.use(Employee.class)
+                .joinType(JoinType.LEFT)
+                .eq("dept.code", "D01")
+                .or()
+                .isNull("dept.name")
+                .toSpec().toPredicate(root, query, cb);
+        Assert.assertEquals(1, root.getJoins().size());
+        Assert.assertEquals(JoinType.LEFT, root.getJoins().iterator().next().getJoinType());
+    }
+
+    @Test
+    public void testJoinTypeWithFetch() {
+        employeeRepository.save(new Employee(4L, "zhaoliu", null));
+        SimpleCondition<Employee> condition = Conditions.use(Employee.class)
+                .isNull("dept.name")
+                .fetch("dept", JoinType.LEFT);
+        // 条件使用内连接，不复用左连接的fetch，与不生成fetch的计数查询结果一致
+        Assert.assertEquals(0, condition.findAll(entityManager).size());
+        Assert.assertEquals(0, condition.count(entityManager));
+
+        condition = Conditions.use(Employee.class)
+                .joinType(JoinType.LEFT)
+                .isNull("dept.name")
+                .fetch("dept", JoinType.LEFT);
+        Assert.assertEquals(1, condition.findAll(entityManager).size());
+        Assert.assertEquals(1, condition.count(entityManager));
+    }
+
+    @Test
+    public void testFilterPrimitive() {
+        FilterParser<Dept> parser = Conditions.filter(Dept.class).fields("code", "headcount:gt,bt,like");
+        // 基本类型的属性按包装类型判断是否可比较
+        Assert.assertEquals(1, parser.parse("headcount=gt:5", entityManager.getMetamodel()).count(entityManager));
+        Assert.assertEquals(2, parser.parse("headcount=bt:1,10;code=notnull", entityManager.getMetamodel()).count(entityManager));
+        try {
+            parser.parse("headcount=like:1", entityManager.getMetamodel());
+            Assert.fail();
+        } catch (JpaPlusException e) {
+            Assert.assertTrue(e.getMessage().contains("headcount"));
+        }
+    }
+
+    @Test
+    public void testBatchWithFetch() {
+        PersistenceUnitUtil util = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<List<Employee>> results = Conditions.batch(Employee.class)
+                .add(Conditions.use(Employee.class).eq("dept.code", "D01").fetch("dept"))
+                .add(Conditions.use(Employee.class).eq("name", "wangwu"))
+                .execute(entityManager);
+        Assert.assertEquals(2, results.get(0).size());
+        Assert.assertTrue(results.get(0).stream().allMatch(i -> util.isLoaded(i.getDept())));
+        Assert.assertEquals(1, results.get(1).size());
+    }
+
+    @Test
+    public void testBatchWithJoin() {
+        employeeRepository.save(new Employee(4L, "zhaoliu", null));
+        // 关联属性的内连接不影响其他条件的结果
+        List<List<Employee>> results = Conditions.batch(Employee.class)
+                .add(Conditions.use(Employee.class).eq("dept.code", "D01"))
+                .add(Conditions.use(Employee.class).eq("name", "zhaoliu"))
+                .execute(entityManager);
+        Assert.assertEquals(2, results.get(0).size());
+        Assert.assertEquals(1, results.get(1).size());
+        Assert.assertEquals("zhaoliu", results.get(1).get(0).getName());
+    }
+
+    @Test
+    @Transactional
+    public void testStreamDetach() {
+        entityManager.flush();
+        entityManager.clear();
+        Dept sale = entityManager.find(Dept.class, 2L);
+        List<Employee> all;
+        try (Stream<Employee> stream = Conditions.use(Employee.class)
+                .fetch("dept")
+                .stream(entityManager, 1)) {
+            all = stream.collect(Collectors.toList());
+        }
+        Assert.assertEquals(3, all.size());
+        // 抓取的关联实体随返回的实体一起移除，调用前已加载的实体保持不变
+        Assert.assertTrue(all.stream().noneMatch(entityManager::contains));
+        Assert.assertTrue(all.stream().map(Employee::getDept).filter(i -> i.getId() == 1L).noneMatch(entityManager::contains));
+        Assert.assertTrue(entityManager.contains(sale));
+    }
+}
@@ -1,7 +1,11 @@
 package com.ct.condition;
 
 import com.ct.condition.core.Conditions;
+import com.ct.condition.core.FilterParser;
+import com.ct.condition.core.InStrategy;
 import com.ct.condition.core.JpaPlusException;
+import com.ct.condition.core.SimpleCondition;
+import com.ct.condition.core.TextSearch;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -13,6 +17,11 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -31,6 +40,12 @@ public class ConditionTest {
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
     
 
     @Before
@@ -199,6 +214,90 @@ public class ConditionTest {
     }
 
 
+    @Test
+    public void testLikeEscape() {
+        // 通配符按字面值匹配
+        Assert.assertEquals(0, Conditions.use(User.class).allLike("username", "%").count(entityManager));
+        Assert.assertEquals(0, Conditions.use(User.class).rightLike("username", "l_si").count(entityManager));
+        Assert.assertEquals(0, Conditions.use(User.class).leftLike("username", "\\").count(entityManager));
+        Assert.assertEquals(1, Conditions.use(User.class).rightLike("username", "lis").count(entityManager));
+
+        Assert.assertEquals(1, Conditions.use(User.class).rightLikeIgnoreCase("username", "LIS").count(entityManager));
+        Assert.assertEquals(2, Conditions.use(User.class).allLikeIgnoreCase("username", "AnG").count(entityManager));
+        Assert.assertEquals(1, Conditions.use(User.class).leftLikeIgnoreCase("username", "Si").count(entityManager));
+
+        // 右模糊查询改写为范围查询
+        Assert.assertEquals(2, Conditions.use(User.class).rightLikeRange(true)
+                .rightLike("username", "zha").count(entityManager));
+        Assert.assertEquals(3, Conditions.use(User.class).rightLikeRange(true)
+                .rightLike("username", "zha").or().eq("username", "lisi").count(entityManager));
+        Assert.assertEquals(1, Conditions.use(User.class).bind(entityManager.getMetamodel()).rightLikeRange(true)
+                .or(i -> i.rightLike("username", "li").rightLike("realname", "李")).count(entityManager));
+        Assert.assertEquals(4, Conditions.use(User.class).rightLikeRange(true)
+                .rightLike("username", "").count(entityManager));
+    }
+
+    @Test
+    public void testMatch() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create alias if not exists text_match for \"com.ct.condition.ConditionTest.textMatch\"");
+            statement.execute("create alias if not exists text_score for \"com.ct.condition.ConditionTest.textScore\"");
+        }
+        // 属性上的注解
+        Assert.assertEquals(1, Conditions.use(User.class).match("username", "LISI").count(entityManager));
+        Assert.assertEquals(0, Conditions.use(User.class).match("username", "is").count(entityManager));
+        // 没有配置时退化为like
+        Assert.assertEquals(1, Conditions.use(User.class).match("realname", "四").count(entityManager));
+        Assert.assertEquals(4, Conditions.use(User.class).match("realname", "").count(entityManager));
+
+        TextSearch.register(User.class, "realname", TextSearch.score("text_score"));
+        try {
+            Assert.assertEquals(0, Conditions.use(User.class).match("realname", "四").count(entityManager));
+            Assert.assertEquals(2, Conditions.use(User.class)
+                    .match("realname", "李四")
+                    .or()
+                    .match("username", "wangwu")
+                    .count(entityManager));
+        } finally {
+            TextSearch.register(User.class, "realname", null);
+        }
+
+        // 探测到函数不存在时退化为like
+        TextSearch.register(User.class, "realname", TextSearch.function("missing_match"));
+        try {
+            TextSearch.verify(entityManager.getEntityManagerFactory());
+            Assert.assertEquals(1, Conditions.use(User.class).match("username", "LISI").count(entityManager));
+            Assert.assertEquals(1, Conditions.use(User.class).match("realname", "四").count(entityManager));
+            Assert.assertEquals(1, Conditions.use(User.class).match("realname", "四").findAll(entityManager).size());
+        } finally {
+            TextSearch.register(User.class, "realname", null);
+        }
+    }
+
+    /**
+     * 测试用的全文检索函数，查询中的每个词都出现时匹配，忽略大小写
+     */
+    public static boolean textMatch(String text, String query) {
+        return textScore(text, query) == query.trim().split("\\s+").length;
+    }
+
+    /**
+     * 测试用的相关度函数，返回查询中与文本相同的词的数量
+     */
+    public static double textScore(String text, String query) {
+        if (text == null) {
+            return 0;
+        }
+        List<String> words = Arrays.asList(text.toLowerCase().split("\\s+"));
+        double score = 0;
+        for (String word : query.toLowerCase().trim().split("\\s+")) {
+            if (words.contains(word)) {
+                score++;
+            }
+        }
+        return score;
+    }
+
     @Test
     public void testIn() throws Exception {
         Specification spec = Conditions.use(User.class)
@@ -391,4 +490,112 @@ public class ConditionTest {
         List<User> all = userRepository.findAll(spec);
         Assert.assertEquals(4, all.size());
     }
-} 
+
+    @Test
+    public void testLargeFilter(){
+        SimpleCondition<User> condition = Conditions.use(User.class).or();
+        for (long i = 0; i < 2000; i++) {
+            condition.eq("id", i + 100);
+        }
+        Specification<User> spec = condition.eq("username", "lisi").toSpec();
+        List<User> all = userRepository.findAll(spec);
+        Assert.assertEquals(1, all.size());
+    }
+
+    @Test
+    public void testInChunk(){
+        Specification<User> spec = Conditions.use(User.class)
+                .inStrategy(InStrategy.getDefault().chunkSize(2))
+                .in("id", 1L, 2L, 3L, null, 3L)
+                .toSpec();
+        Assert.assertEquals(3, userRepository.findAll(spec).size());
+
+        spec = Conditions.use(User.class)
+                .inStrategy(InStrategy.getDefault().chunkSize(2).padding(false))
+                .notIn("id", 1L, 2L, 3L)
+                .toSpec();
+        Assert.assertEquals(1, userRepository.findAll(spec).size());
+
+        Assert.assertFalse(InStrategy.getDefault().isPadding());
+        SimpleCondition<User> padded = Conditions.use(User.class)
+                .inStrategy(InStrategy.getDefault().padding(true).chunkSize(4))
+                .in("id", 1L, 2L, 3L, 4L, 5L)
+                .notIn("username", "zhangsan", "lisi", "wangwu");
+        Assert.assertEquals(1, padded.findAll(entityManager).size());
+        Assert.assertEquals(1, padded.count(entityManager));
+    }
+
+    @Test
+    public void testMetamodel(){
+        Specification<User> spec = Conditions.use(User.class, entityManager.getMetamodel())
+                .eq("id", 2)
+                .or(i -> i.in("id", 3, 4))
+                .toSpec();
+        Assert.assertEquals(3, userRepository.findAll(spec).size());
+
+        try {
+            Conditions.use(User.class, entityManager.getMetamodel()).eq("usrname", "lisi");
+            Assert.fail();
+        } catch (JpaPlusException e) {
+            Assert.assertTrue(e.getMessage().contains("usrname"));
+        }
+        try {
+            Conditions.use(User.class, entityManager.getMetamodel()).eq("id", "abc");
+            Assert.fail();
+        } catch (JpaPlusException e) {
+            Assert.assertTrue(e.getMessage().contains("id"));
+        }
+    }
+
+    @Test
+    public void testFilter(){
+        try {
+            Conditions.filter(User.class).parse("id=1", entityManager.getMetamodel());
+            Assert.fail();
+        } catch (JpaPlusException e) {
+            Assert.assertTrue(e.getMessage().contains("fields"));
+        }
+        FilterParser<User> parser = Conditions.filter(User.class).fields("username:rl,ne", "id", "realname").maxPredicates(3).maxInSize(3);
+        Specification<User> spec = parser.parse("username=rl:li;id=in:1,2,3|realname=null", entityManager.getMetamodel())
+                .toSpec();
+        Assert.assertEquals(Arrays.asList(2L, 4L), ids(userRepository.findAll(spec)));
+
+        // 相同结构的表达式复用模板，之后追加的条件与过滤条件构成且的关系
+        spec = parser.parse("username=rl:zh;id=in:1,4|realname=null", entityManager.getMetamodel())
+                .notEq("id", 4L)
+                .toSpec();
+        Assert.assertEquals(1, parser.size());
+        Assert.assertEquals(Arrays.asList(1L), ids(userRepository.findAll(spec)));
+
+        spec = parser.parse("id=bt:2,;realname=notnull;username=ne:a\\,\\;b", entityManager.getMetamodel()).toSpec();
+        Assert.assertEquals(Arrays.asList(2L, 3L), ids(userRepository.findAll(spec)));
+        Assert.assertEquals(4, userRepository.findAll(parser.parse("username=rl:", entityManager.getMetamodel()).toSpec()).size());
+
+        // username只允许声明的操作符，未声明操作符的realname不允许模糊查询
+        String[] rejected = {"password=1", "id=like:1", "username=li", "username=like:li", "realname=rl:li", "username",
+                "id=in:1,2,3,4", "id=1;id=2;id=3;id=4", "id=abc"};
+        for (String expression : rejected) {
+            try {
+                parser.parse(expression, entityManager.getMetamodel());
+                Assert.fail(expression);
+            } catch (JpaPlusException e) {
+                Assert.assertNotNull(e.getMessage());
+            }
+        }
+        try {
+            Conditions.filter(User.class).fields("username:eq,sw");
+            Assert.fail();
+        } catch (JpaPlusException e) {
+            Assert.assertTrue(e.getMessage().contains("sw"));
+        }
+    }
+
+    private static List<Long> ids(List<User> users) {
+        List<Long> ids = new ArrayList<>();
+        for (User user : users) {
+            ids.add(user.getId());
+        }
+        ids.sort(null);
+        return ids;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ct.condition;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "t_dept")
+public class Dept {
+    @Id
+    private Long id;
+    private String name;
+    private String code;
+    private int headcount;
+}
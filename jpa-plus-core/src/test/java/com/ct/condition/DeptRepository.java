@@ -0,0 +1,13 @@
+package com.ct.condition;
+
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.springframework.stereotype.Repository;
+
+/**
+ * DeptRepository
+ *
+ * @author chentao
+ */
+@Repository
+public interface DeptRepository extends JpaRepositoryImplementation<Dept,Long> {
+}
@@ -0,0 +1,27 @@
+package com.ct.condition;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.Table;
+
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "t_employee")
+@NamedEntityGraph(name = "Employee.dept", attributeNodes = @NamedAttributeNode("dept"))
+public class Employee {
+    @Id
+    private Long id;
+    private String name;
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Dept dept;
+}
@@ -0,0 +1,13 @@
+package com.ct.condition;
+
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.springframework.stereotype.Repository;
+
+/**
+ * EmployeeRepository
+ *
+ * @author chentao
+ */
+@Repository
+public interface EmployeeRepository extends JpaRepositoryImplementation<Employee,Long> {
+}
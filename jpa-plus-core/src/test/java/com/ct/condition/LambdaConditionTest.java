@@ -1,7 +1,17 @@
 package com.ct.condition;
 
+import com.ct.condition.core.ConditionCache;
+import com.ct.condition.core.ConditionEvent;
+import com.ct.condition.core.ConditionListener;
+import com.ct.condition.core.ConditionListeners;
 import com.ct.condition.core.Conditions;
+import com.ct.condition.core.FrozenCondition;
+import com.ct.condition.core.JpaPlusException;
+import com.ct.condition.core.KeysetPage;
+import com.ct.condition.core.LambdaUtils;
+import com.ct.condition.core.MicrometerConditionListener;
 import com.ct.condition.core.SimpleLambdaCondition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -9,11 +19,31 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.junit4.SpringRunner;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /** 
 * @description AbstractWrapper Tester. 
@@ -25,9 +55,20 @@ import java.util.List;
 @RunWith(value = SpringRunner.class)
 public class LambdaConditionTest {
 
+    private static final FrozenCondition<User> HAS_REALNAME = Conditions.lambdaUse(User.class)
+            .isNotNull(User::getRealname)
+            .and(i -> i.notEq(User::getUsername, "nobody"))
+            .freeze();
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Before
     public void init() {
         userRepository.saveAll(Arrays.asList(
@@ -202,4 +243,475 @@ public class LambdaConditionTest {
         Assert.assertEquals(2, userRepository.findAll(spec).size());
     }
 
-} 
+    @Test
+    public void testColumnNameCache(){
+        long misses = 0;
+        for (int i = 0; i < 3; i++) {
+            Conditions.lambdaUse(User.class).eq(User::getUsername, "lisi");
+            if (i == 0) {
+                misses = LambdaUtils.cacheMissCount();
+            }
+        }
+        Assert.assertEquals(misses, LambdaUtils.cacheMissCount());
+        Assert.assertTrue(LambdaUtils.cacheHitCount() >= 2);
+    }
+
+    @Test
+    @Transactional
+    public void testStream(){
+        try (Stream<User> stream = Conditions.lambdaUse(User.class)
+                .ge(User::getId, 2L)
+                .stream(entityManager, 2)) {
+            List<String> names = stream.map(User::getUsername).collect(Collectors.toList());
+            Assert.assertEquals(3, names.size());
+            Assert.assertTrue(names.contains("zhaoliu"));
+        }
+    }
+
+    @Test
+    public void testKeyset(){
+        KeysetPage<User> page = Conditions.lambdaUse(User.class)
+                .notEq(User::getId, 2L)
+                .keyset(User::getUsername, User::getId)
+                .page(entityManager, 2);
+        Assert.assertEquals(Arrays.asList("wangwu", "zhangsan"),
+                page.getContent().stream().map(User::getUsername).collect(Collectors.toList()));
+        Assert.assertTrue(page.hasNext());
+
+        page = Conditions.lambdaUse(User.class)
+                .notEq(User::getId, 2L)
+                .keyset(User::getUsername, User::getId)
+                .after(page.getNextToken())
+                .page(entityManager, 2);
+        Assert.assertEquals(1, page.getContent().size());
+        Assert.assertEquals("zhaoliu", page.getContent().get(0).getUsername());
+        Assert.assertFalse(page.hasNext());
+
+        page = Conditions.lambdaUse(User.class)
+                .keyset(Sort.Direction.DESC, User::getId)
+                .afterKey(3L)
+                .page(entityManager, 10);
+        Assert.assertEquals(2, page.getContent().size());
+        Assert.assertEquals(Long.valueOf(2L), page.getContent().get(0).getId());
+    }
+
+    @Test
+    public void testProjection(){
+        SimpleLambdaCondition<User> condition = Conditions.lambdaUse(User.class)
+                .in(User::getId, 1L, 2L);
+        List<UserSummary> summaries = Conditions.select(User::getId, User::getUsername)
+                .where(condition)
+                .into(UserSummary.class)
+                .getResultList(entityManager);
+        Assert.assertEquals(2, summaries.size());
+        Assert.assertTrue(summaries.stream().anyMatch(i -> i.id == 2L && "lisi".equals(i.username)));
+
+        List<Tuple> tuples = Conditions.select(User.class, "username")
+                .where(Conditions.use(User.class).eq("id", 1L))
+                .getResultList(entityManager);
+        Assert.assertEquals("zhangsan", tuples.get(0).get("username"));
+    }
+
+    @Test
+    @Transactional
+    public void testTypedColumn() {
+        List<User> users = Conditions.typedUse(User.class)
+                .eq(UserCols.USERNAME, "lisi")
+                .or()
+                .in(UserCols.ID, 3L, 4L)
+                .findAll(entityManager);
+        Assert.assertEquals(Arrays.asList(2L, 3L, 4L), users.stream().map(User::getId).sorted().collect(Collectors.toList()));
+        Assert.assertEquals(Long.class, UserCols.ID.getJavaType());
+        Assert.assertEquals(2, Conditions.typedUse(User.class)
+                .between(UserCols.ID, 2L, 4L)
+                .in(UserCols.USERNAME, Arrays.asList("lisi", "wangwu"))
+                .count(entityManager));
+
+        List<UserSummary> summaries = Conditions.select(UserCols.ID, UserCols.USERNAME)
+                .where(Conditions.typedUse(User.class).isNotNull(UserCols.REALNAME))
+                .into(UserSummary.class)
+                .getResultList(entityManager);
+        Assert.assertEquals(3, summaries.size());
+
+        int rows = Conditions.update(User.class)
+                .set(UserCols.REALNAME, "李四四")
+                .where(Conditions.typedUse(User.class).eq(UserCols.ID, 2L))
+                .execute(entityManager);
+        Assert.assertEquals(1, rows);
+    }
+
+    @Test
+    public void testTypedColumnMismatch() {
+        try {
+            Conditions.typedUse(User.class).eq(UserCols.ID, "1");
+            Assert.fail();
+        } catch (JpaPlusException e) {
+            Assert.assertTrue(e.getMessage().contains("id"));
+        }
+        try {
+            Conditions.typedUse(User.class).in(UserCols.ID, Arrays.asList("1", "2"));
+            Assert.fail();
+        } catch (JpaPlusException e) {
+            Assert.assertTrue(e.getMessage().contains("id"));
+        }
+        Assert.assertEquals(1, Conditions.typedUse(User.class)
+                .rightLikeRange(true)
+                .rightLike(UserCols.USERNAME, "lis")
+                .count(entityManager));
+    }
+
+    public static class UserSummary {
+        private final long id;
+        private final String username;
+
+        public UserSummary(long id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+    }
+
+    @Test
+    public void testCountAndExists(){
+        SimpleLambdaCondition<User> condition = Conditions.lambdaUse(User.class)
+                .isNotNull(User::getRealname);
+        Assert.assertEquals(3, condition.count(entityManager));
+        Assert.assertTrue(condition.exists(entityManager));
+        Assert.assertFalse(Conditions.lambdaUse(User.class)
+                .eq(User::getUsername, "nobody")
+                .exists(entityManager));
+    }
+
+    @Test
+    public void testFreeze() throws Exception {
+        Assert.assertEquals(3, HAS_REALNAME.count(entityManager));
+
+        SimpleLambdaCondition<User> condition = Conditions.lambdaUse(User.class).eq(User::getId, 4L);
+        FrozenCondition<User> frozen = condition.freeze();
+        condition.eq(User::getUsername, "nobody");
+        Assert.assertEquals(1, frozen.findAll(entityManager).size());
+        Assert.assertEquals(4, HAS_REALNAME.or(frozen).count(entityManager));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                long id = i % 4 + 1;
+                futures.add(executor.submit(() -> userRepository.findAll(Conditions.lambdaUse(User.class)
+                        .eq(User::getId, id)
+                        .and(HAS_REALNAME)
+                        .toSpec()).size()));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Assert.assertEquals(i % 4 == 3 ? 0 : 1, (int) futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        List<List<User>> results = Conditions.batch(User.class)
+                .add(Conditions.lambdaUse(User.class).eq(User::getId, 1L))
+                .add(Conditions.lambdaUse(User.class).rightLike(User::getUsername, "zha"))
+                .add(HAS_REALNAME)
+                .execute(entityManager);
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(1, results.get(0).size());
+        Assert.assertEquals(2, results.get(1).size());
+        Assert.assertEquals(3, results.get(2).size());
+
+        results = Conditions.batch(User.class)
+                .add(Conditions.lambdaUse(User.class))
+                .add(Conditions.lambdaUse(User.class).eq(User::getUsername, "nobody"))
+                .execute(entityManager);
+        Assert.assertEquals(4, results.get(0).size());
+        Assert.assertTrue(results.get(1).isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void testUpdateAndDelete() {
+        User lisi = entityManager.find(User.class, 2L);
+        int rows = Conditions.update(User.class)
+                .set(User::getRealname, "李四四")
+                .where(Conditions.lambdaUse(User.class).eq(User::getUsername, "lisi"))
+                .evict(true)
+                .execute(entityManager);
+        Assert.assertEquals(1, rows);
+        Assert.assertFalse(entityManager.contains(lisi));
+        Assert.assertEquals("李四四", entityManager.find(User.class, 2L).getRealname());
+
+        rows = Conditions.delete(User.class)
+                .where(Conditions.lambdaUse(User.class).isNull(User::getRealname).or().in(User::getId, 1L))
+                .execute(entityManager);
+        Assert.assertEquals(2, rows);
+        Assert.assertEquals(2, Conditions.lambdaUse(User.class).count(entityManager));
+    }
+
+    @Test
+    public void testListener() {
+        List<ConditionEvent> executions = new ArrayList<>();
+        ConditionListener listener = new ConditionListener() {
+            @Override
+            public void onExecute(ConditionEvent event) {
+                executions.add(event);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerConditionListener micrometer = new MicrometerConditionListener(registry);
+        ConditionListeners.register(listener);
+        ConditionListeners.register(micrometer);
+        try {
+            List<User> users = Conditions.lambdaUse(User.class)
+                    .eq(User::getUsername, "lisi")
+                    .or(i -> i.ge(User::getId, 3L).isNotNull(User::getRealname))
+                    .findAll(entityManager);
+            Assert.assertEquals(2, users.size());
+
+            // 执行失败时同样通知监听器
+            EntityManager closed = entityManagerFactory.createEntityManager();
+            closed.close();
+            try {
+                Conditions.lambdaUse(User.class).eq(User::getUsername, "lisi").findAll(closed);
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        } finally {
+            ConditionListeners.unregister(listener);
+            ConditionListeners.unregister(micrometer);
+        }
+        Assert.assertEquals(2, executions.size());
+        ConditionEvent event = executions.get(0);
+        Assert.assertEquals(User.class, event.getEntityClass());
+        Assert.assertEquals("OR[EQUAL(username),AND[GE(id),IS_NOT_NULL(realname)]]", event.getShape());
+        Assert.assertFalse(event.isFailed());
+        Assert.assertTrue(executions.get(1).isFailed());
+        Assert.assertEquals(-1, executions.get(1).getRows());
+        Assert.assertEquals(1, registry.get("jpa.plus.query.execution").tag("outcome", "error").timer().count());
+        Assert.assertEquals(3, event.getPredicateCount());
+        Assert.assertEquals(3, event.getDepth());
+        Assert.assertEquals("findAll", event.getTerminal());
+        Assert.assertEquals(2, event.getRows());
+        Assert.assertEquals(1, registry.get("jpa.plus.condition.build").timer().count());
+        Assert.assertEquals(1, registry.get("jpa.plus.condition.translate").timer().count());
+        Assert.assertEquals(2, (long) registry.get("jpa.plus.query.rows").tag("terminal", "findAll").summary().totalAmount());
+    }
+
+    @Test
+    public void testFingerprint() {
+        SimpleLambdaCondition<User> lisi = Conditions.lambdaUse(User.class)
+                .eq(User::getUsername, "lisi")
+                .in(User::getId, 1L, 2L, 3L);
+        SimpleLambdaCondition<User> wangwu = Conditions.lambdaUse(User.class)
+                .eq(User::getUsername, "wangwu")
+                .in(User::getId, 4L, 5L, 6L, 7L);
+        Assert.assertEquals(lisi.shapeFingerprint(), wangwu.shapeFingerprint());
+        Assert.assertNotEquals(lisi.valueFingerprint(), wangwu.valueFingerprint());
+        Assert.assertEquals(lisi.shapeFingerprint(), lisi.freeze().shapeFingerprint());
+        Assert.assertEquals(lisi.valueFingerprint(), Conditions.lambdaUse(User.class)
+                .eq(User::getUsername, "lisi")
+                .in(User::getId, 1L, 2L, 3L)
+                .valueFingerprint());
+
+        Assert.assertNotEquals(lisi.shapeFingerprint(), Conditions.lambdaUse(User.class)
+                .notEq(User::getUsername, "lisi")
+                .in(User::getId, 1L, 2L, 3L)
+                .shapeFingerprint());
+        Assert.assertNotEquals(lisi.shapeFingerprint(), Conditions.lambdaUse(User.class)
+                .eq(User::getUsername, "lisi")
+                .or()
+                .in(User::getId, 1L, 2L, 3L)
+                .shapeFingerprint());
+        Assert.assertNotEquals(lisi.shapeFingerprint(), Conditions.lambdaUse(User.class)
+                .eq(User::getUsername, "lisi")
+                .in(User::getId, 1L, 2L, 3L, 4L, 5L)
+                .shapeFingerprint());
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        ConditionCache cache = new ConditionCache(2, Duration.ofMinutes(1));
+        List<User> users = Conditions.lambdaUse(User.class).ge(User::getId, 2L).cache(cache).findAll(entityManager);
+        Assert.assertEquals(3, users.size());
+        List<User> cached = Conditions.lambdaUse(User.class).ge(User::getId, 2L).cache(cache).findAll(entityManager);
+        Assert.assertEquals(users.stream().map(User::getId).collect(Collectors.toList()),
+                cached.stream().map(User::getId).collect(Collectors.toList()));
+        Assert.assertEquals(1, cache.hitCount(User.class));
+        Assert.assertEquals(1, cache.missCount(User.class));
+
+        Assert.assertEquals(3, Conditions.lambdaUse(User.class).ge(User::getId, 2L).cache(cache).count(entityManager));
+        Assert.assertEquals(3, Conditions.lambdaUse(User.class).ge(User::getId, 2L).cache(cache).count(entityManager));
+        Assert.assertEquals(2, cache.hitCount(User.class));
+
+        // 实体监听器使缓存失效
+        userRepository.save(new User(5L, "sunqi", "孙七"));
+        Assert.assertEquals(4, Conditions.lambdaUse(User.class).ge(User::getId, 2L).cache(cache).count(entityManager));
+        Assert.assertEquals(3, cache.missCount(User.class));
+
+        // 超过数量上限时淘汰最久未使用的
+        Conditions.lambdaUse(User.class).eq(User::getId, 1L).cache(cache).findAll(entityManager);
+        Conditions.lambdaUse(User.class).eq(User::getId, 2L).cache(cache).findAll(entityManager);
+        Assert.assertEquals(2, cache.size());
+
+        ConditionCache shortLived = new ConditionCache(10, Duration.ofMillis(1));
+        Conditions.lambdaUse(User.class).eq(User::getId, 1L).cache(shortLived).count(entityManager);
+        Thread.sleep(5);
+        Conditions.lambdaUse(User.class).eq(User::getId, 1L).cache(shortLived).count(entityManager);
+        Assert.assertEquals(0, shortLived.hitCount(User.class));
+        Assert.assertEquals(2, shortLived.missCount(User.class));
+    }
+
+    @Test
+    public void testOptimize() {
+        List<ConditionEvent> executions = new ArrayList<>();
+        ConditionListener listener = new ConditionListener() {
+            @Override
+            public void onExecute(ConditionEvent event) {
+                executions.add(event);
+            }
+        };
+        ConditionListeners.register(listener);
+        try {
+            // 同一字段的eq合并为in，事件中的结构为改写前的条件树
+            SimpleLambdaCondition<User> condition = Conditions.lambdaUse(User.class)
+                    .eq(User::getId, 1L).or().eq(User::getId, 2L).or().in(User::getId, 3L, 9L);
+            Assert.assertEquals(3, condition.findAll(entityManager).size());
+            Assert.assertTrue(toPredicate(condition) instanceof CriteriaBuilder.In);
+            Assert.assertEquals("OR[EQUAL(id),EQUAL(id),IN(id)]", executions.get(0).getShape());
+            Assert.assertEquals(condition.shapeFingerprint(), executions.get(0).getShapeFingerprint());
+            // ge和le合并为between，重复的条件只保留一个
+            condition = Conditions.lambdaUse(User.class)
+                    .ge(User::getId, 2L).le(User::getId, 3L).isNotNull(User::getRealname).isNotNull(User::getRealname);
+            Assert.assertEquals(2, condition.count(entityManager));
+            Assert.assertEquals(2, toPredicate(condition).getExpressions().size());
+            Assert.assertEquals("AND[GE(id),LE(id),IS_NOT_NULL(realname),IS_NOT_NULL(realname)]", executions.get(1).getShape());
+            // 恒真的分组被去掉
+            condition = Conditions.lambdaUse(User.class)
+                    .or(i -> i.isNull(User::getRealname).or().isNotNull(User::getRealname));
+            Assert.assertEquals(4, condition.count(entityManager));
+            Assert.assertNull(toPredicate(condition));
+
+            // 矛盾的条件不访问数据库，仍然通知监听器，结构与值无关
+            Assert.assertTrue(Conditions.lambdaUse(User.class)
+                    .eq(User::getId, 1L).eq(User::getId, 2L)
+                    .findAll(entityManager).isEmpty());
+            Assert.assertEquals(0, Conditions.lambdaUse(User.class)
+                    .isNull(User::getRealname).isNotNull(User::getRealname)
+                    .count(entityManager));
+            Assert.assertFalse(Conditions.lambdaUse(User.class)
+                    .ge(User::getId, 3L).lt(User::getId, 3L)
+                    .exists(entityManager));
+            Assert.assertEquals(6, executions.size());
+            Assert.assertEquals(0, executions.get(3).getRows());
+            Assert.assertEquals(Conditions.lambdaUse(User.class).eq(User::getId, 1L).eq(User::getId, 1L).shapeFingerprint(),
+                    executions.get(3).getShapeFingerprint());
+            // 矛盾的分组在或关系中被去掉
+            condition = Conditions.lambdaUse(User.class)
+                    .eq(User::getUsername, "lisi")
+                    .or(i -> i.eq(User::getId, 1L).eq(User::getId, 2L));
+            Assert.assertEquals(1, condition.findAll(entityManager).size());
+            Assert.assertEquals(0, toPredicate(condition).getExpressions().size());
+            Assert.assertEquals("OR[EQUAL(username),AND[EQUAL(id),EQUAL(id)]]", executions.get(6).getShape());
+            // 字符串的比较取决于数据库的排序规则，不判断为矛盾
+            Assert.assertTrue(Conditions.lambdaUse(User.class)
+                    .eq(User::getUsername, "lisi").eq(User::getUsername, "LISI")
+                    .findAll(entityManager).isEmpty());
+            Assert.assertEquals(8, executions.size());
+        } finally {
+            ConditionListeners.unregister(listener);
+        }
+    }
+
+    private Predicate toPredicate(SimpleLambdaCondition<User> condition) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = cb.createQuery(User.class);
+        return condition.toSpec().toPredicate(query.from(User.class), query, cb);
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        SimpleLambdaCondition<User> condition = Conditions.lambdaUse(User.class).ge(User::getId, 2L);
+        CompletableFuture<List<User>> users = condition.findAllAsync(entityManagerFactory);
+        CompletableFuture<Long> count = condition.countAsync(entityManagerFactory);
+        // 条件在调用时已构造完成
+        condition.le(User::getId, 2L);
+        Assert.assertEquals(3, users.get(10, TimeUnit.SECONDS).size());
+        Assert.assertEquals(3L, (long) count.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1L, (long) condition.countAsync(entityManagerFactory, Runnable::run).get());
+
+        // 超时和取消
+        Executor delayed = runnable -> new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            runnable.run();
+        }).start();
+        CompletableFuture<List<User>> timeout = Conditions.lambdaUse(User.class)
+                .timeout(Duration.ofMillis(20))
+                .findAllAsync(entityManagerFactory, delayed);
+        try {
+            timeout.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        CompletableFuture<Long> cancelled = Conditions.lambdaUse(User.class).countAsync(entityManagerFactory, delayed);
+        Assert.assertTrue(cancelled.cancel(true));
+        Assert.assertTrue(cancelled.isCancelled());
+    }
+
+    @Test
+    public void testParallelScan() {
+        List<User> users = Conditions.lambdaUse(User.class)
+                .parallelScan(User::getId)
+                .partitions(3)
+                .ordered(true)
+                .findAll(entityManagerFactory);
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), users.stream().map(User::getId).collect(Collectors.toList()));
+
+        List<Long> ids = Conditions.lambdaUse(User.class)
+                .ge(User::getId, 2L)
+                .parallelScan(User::getId)
+                .partitions(8)
+                .findAll(entityManagerFactory)
+                .stream().map(User::getId).sorted().collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList(2L, 3L, 4L), ids);
+
+        try (Stream<User> stream = Conditions.lambdaUse(User.class)
+                .isNotNull(User::getRealname)
+                .parallelScan(User::getId)
+                .bounds(2L, 10L)
+                .ordered(true)
+                .stream(entityManagerFactory)) {
+            Assert.assertEquals(Arrays.asList(2L, 3L), stream.map(User::getId).collect(Collectors.toList()));
+        }
+
+        List<Long> chunked = Conditions.lambdaUse(User.class)
+                .timeout(Duration.ofSeconds(5))
+                .parallelScan(User::getId)
+                .partitions(2)
+                .fetchSize(1)
+                .ordered(true)
+                .findAll(entityManagerFactory)
+                .stream().map(User::getId).collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L), chunked);
+
+        try (Stream<User> stream = Conditions.lambdaUse(User.class)
+                .parallelScan(User::getId)
+                .partitions(2)
+                .fetchSize(1)
+                .ordered(true)
+                .stream(entityManagerFactory)) {
+            Assert.assertEquals(Long.valueOf(1L), stream.findFirst().map(User::getId).orElse(null));
+        }
+
+        Assert.assertTrue(Conditions.lambdaUse(User.class)
+                .eq(User::getId, 1L).eq(User::getId, 2L)
+                .parallelScan(User::getId)
+                .findAll(entityManagerFactory).isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ct.condition;
+
+import com.ct.condition.core.Conditions;
+import com.ct.condition.core.InStrategy;
+import com.ct.condition.core.JpaPlusException;
+import com.ct.condition.core.PreparedCondition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ct.condition.core.Conditions.param;
+
+/**
+* @description PreparedCondition Tester.
+* @author ThomasChan
+* @version 1.0
+*/
+@SpringBootTest
+@RunWith(value = SpringRunner.class)
+public class PreparedConditionTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Before
+    public void init() {
+        userRepository.saveAll(Arrays.asList(
+                new User(1L, "zhangsan","张三"),
+                new User(2L, "lisi","李四"),
+                new User(3L, "wangwu","王五"),
+                new User(4L, "zhaoliu",null)
+        ));
+    }
+
+    @After
+    public void destory() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testNamed() {
+        PreparedCondition<User> prepared = Conditions.prepare(User.class, c -> c
+                .eq(User::getUsername, param("u"))
+                .or()
+                .rightLikeParam(User::getRealname, param("r")));
+        List<User> all = prepared.bind("u", "lisi").bind("r", "张").getResultList(entityManager);
+        Assert.assertEquals(2, all.size());
+        all = prepared.bind("u", "wangwu").bind("r", "李").getResultList(entityManager);
+        Assert.assertEquals(2, all.size());
+    }
+
+    @Test
+    public void testPositional() {
+        PreparedCondition<User> prepared = Conditions.use(User.class)
+                .ge("id", param())
+                .in("username", param())
+                .prepare();
+        List<User> all = prepared.bind(2L, Arrays.asList("lisi", "zhangsan", "zhaoliu")).getResultList(entityManager);
+        Assert.assertEquals(2, all.size());
+        all = prepared.bind(1L, new String[]{"zhangsan"}).getResultList(entityManager);
+        Assert.assertEquals(1, all.size());
+    }
+
+    @Test(expected = JpaPlusException.class)
+    public void testUnbound() {
+        Conditions.prepare(User.class, c -> c.eq(User::getUsername, param("u")))
+                .bind("x", "lisi")
+                .getResultList(entityManager);
+    }
+
+    @Test(expected = JpaPlusException.class)
+    public void testSpecWithParam() {
+        userRepository.findAll(Conditions.lambdaUse(User.class).eq(User::getUsername, param("u")).toSpec());
+    }
+
+    @Test
+    public void testArrayBinding() {
+        InStrategy strategy = InStrategy.getDefault().arrayBinding("array_contains", 2);
+        PreparedCondition<User> prepared = Conditions.use(User.class)
+                .inStrategy(strategy)
+                .in("id", param())
+                .or()
+                .in("username", "wangwu", "zhaoliu")
+                .prepare();
+        Assert.assertEquals(4, prepared.bind(Arrays.asList(1L, 2L, null)).getResultList(entityManager).size());
+        Assert.assertEquals(3, prepared.bind(Arrays.asList(1L)).getResultList(entityManager).size());
+    }
+}
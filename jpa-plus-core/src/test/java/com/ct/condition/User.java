@@ -1,5 +1,7 @@
 package com.ct.condition;
 
+import com.ct.condition.core.ConditionCacheListener;
+import com.ct.condition.core.FullText;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,11 +14,13 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "t_user")
+@EntityListeners(ConditionCacheListener.class)
 public class User {
     @Id
     @GeneratedValue(generator = "strategy",strategy = GenerationType.AUTO)
     @GenericGenerator(name = "strategy",strategy = "com.ct.condition.ManulInsertGenerator")
     private Long id;
+    @FullText("text_match")
     private String username;
     private String realname;
 }
\ No newline at end of file
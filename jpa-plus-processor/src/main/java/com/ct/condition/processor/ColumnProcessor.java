@@ -0,0 +1,214 @@
+package com.ct.condition.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 为@Entity、@Embeddable和@MappedSuperclass类生成属性描述常量，如User生成UserCols：
+ * public static final Column&lt;User, String&gt; USERNAME = Column.of(User.class, "username", String.class);
+ * 包括父类（@Entity、@MappedSuperclass）中的属性，忽略static、transient和@Transient的字段；
+ * 只扫描字段，使用属性访问（注解在getter上）的实体同样按字段生成
+ *
+ * @author chentao
+ * @date 2026/10/18
+ */
+public class ColumnProcessor extends AbstractProcessor {
+
+    static final String SUFFIX = "Cols";
+
+    private static final String COLUMN_CLASS = "com.ct.condition.core.Column";
+    private static final List<String> PERSISTENCE_PACKAGES = Arrays.asList("javax.persistence.", "jakarta.persistence.");
+    private static final List<String> MANAGED = Arrays.asList("Entity", "Embeddable", "MappedSuperclass");
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new HashSet<>();
+        for (String pkg : PERSISTENCE_PACKAGES) {
+            for (String annotation : MANAGED) {
+                types.add(pkg + annotation);
+            }
+        }
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (generated.add(type.getQualifiedName().toString())) {
+                    generate(type);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) {
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Columns are only generated for top level classes", type);
+            return;
+        }
+        // 与实体同名时使用全限定名
+        boolean qualified = type.getSimpleName().contentEquals("Column");
+        String column = qualified ? COLUMN_CLASS : "Column";
+        Map<String, String> constants = new LinkedHashMap<>();
+        boolean unchecked = false;
+        for (VariableElement field : fields(type)) {
+            String name = field.getSimpleName().toString();
+            String constant = constantName(name);
+            if (constants.containsKey(constant)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Duplicated column constant " + constant + ", attribute " + name + " is skipped", field);
+                continue;
+            }
+            TypeMirror fieldType = processingEnv.getTypeUtils().asMemberOf((DeclaredType) type.asType(), field);
+            if (fieldType.getKind().isPrimitive()) {
+                fieldType = processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(fieldType.getKind())).asType();
+            } else if (fieldType.getKind() == TypeKind.TYPEVAR) {
+                // 泛型父类中未确定的类型参数使用其上界
+                fieldType = processingEnv.getTypeUtils().erasure(fieldType);
+            }
+            String valueType = fieldType.toString();
+            String rawType = processingEnv.getTypeUtils().erasure(fieldType).toString();
+            String classLiteral = rawType + ".class";
+            if (!valueType.equals(rawType)) {
+                // 参数化类型没有对应的类字面量
+                classLiteral = "(java.lang.Class) " + classLiteral;
+                unchecked = true;
+            }
+            constants.put(constant, "    public static final " + column + "<" + type.getSimpleName() + ", " + valueType + "> "
+                    + constant + " = " + column + ".of(" + type.getSimpleName() + ".class, \"" + name + "\", " + classLiteral + ");\n");
+        }
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String simpleName = type.getSimpleName() + SUFFIX;
+        String qualifiedName = pkg.isUnnamed() ? simpleName : pkg.getQualifiedName() + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                if (!pkg.isUnnamed()) {
+                    writer.write("package " + pkg.getQualifiedName() + ";\n\n");
+                }
+                if (!qualified) {
+                    writer.write("import " + COLUMN_CLASS + ";\n\n");
+                }
+                writer.write("/**\n * " + type.getSimpleName() + "的属性描述，由" + ColumnProcessor.class.getName() + "生成\n */\n");
+                if (unchecked) {
+                    writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+                }
+                writer.write("public final class " + simpleName + " {\n\n");
+                for (String constant : constants.values()) {
+                    writer.write(constant);
+                }
+                if (!constants.isEmpty()) {
+                    writer.write("\n");
+                }
+                writer.write("    private " + simpleName + "() {\n    }\n}\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * 持久化字段，父类的字段在前
+     */
+    private List<VariableElement> fields(TypeElement type) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            hierarchy.add(0, current);
+            if (current != type && !isManaged(current)) {
+                hierarchy.remove(0);
+                break;
+            }
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement current : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (field.getKind() == ElementKind.FIELD
+                        && !field.getModifiers().contains(Modifier.STATIC)
+                        && !field.getModifiers().contains(Modifier.TRANSIENT)
+                        && !hasAnnotation(field, "Transient")) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private boolean isManaged(TypeElement type) {
+        return hasAnnotation(type, "Entity") || hasAnnotation(type, "MappedSuperclass");
+    }
+
+    private static boolean hasAnnotation(Element element, String simpleName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            for (String pkg : PERSISTENCE_PACKAGES) {
+                if (name.equals(pkg + simpleName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 驼峰命名转换为大写下划线命名，如userName转换为USER_NAME
+     */
+    static String constantName(String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i > 0 && Character.isUpperCase(c)) {
+                char previous = name.charAt(i - 1);
+                boolean nextLower = i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1));
+                if (Character.isLowerCase(previous) || Character.isDigit(previous)
+                        || Character.isUpperCase(previous) && nextLower) {
+                    builder.append('_');
+                }
+            }
+            builder.append(Character.toUpperCase(c));
+        }
+        return builder.toString();
+    }
+}